@@ -2,6 +2,7 @@ package com.yatranow.config;
 
 import com.yatranow.entity.*;
 import com.yatranow.repository.*;
+import com.yatranow.service.OwnerStatsService;
 import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.crypto.password.PasswordEncoder;
@@ -19,10 +20,10 @@ public class DataSeeder {
     private final AdminRepository adminRepository;
     private final OwnerRepository ownerRepository;
     private final VehicleRepository vehicleRepository;
-    private final SeatRepository seatRepository;
     private final RouteRepository routeRepository;
     private final ScheduleRepository scheduleRepository;
     private final PasswordEncoder passwordEncoder;
+    private final OwnerStatsService ownerStatsService;
 
     @PostConstruct
     public void seedData() {
@@ -83,8 +84,6 @@ public class DataSeeder {
             owner.setMobile("9876543210");
             owner.setRole("OWNER");
             owner.setIsBlocked(false);
-            // Note: In real scenario, would need actual image bytes
-            owner.setAgencyImage(new byte[0]); // Empty for seed data
             owners.add(ownerRepository.save(owner));
         }
 
@@ -131,12 +130,8 @@ public class DataSeeder {
         vehicle.setBusType(busType);
         vehicle.setTotalSeats(busType.getSeatCount());
 
-        vehicle = vehicleRepository.save(vehicle);
-
-        // Auto-generate seats
-        generateSeatsForBus(vehicle, busType);
-
-        return vehicle;
+        // Seats come from the shared BusType layout, nothing to insert
+        return vehicleRepository.save(vehicle);
     }
 
     private Vehicle createTrainVehicle(Owner owner, String number, String name, int totalSeats) {
@@ -147,74 +142,7 @@ public class DataSeeder {
         vehicle.setName(name);
         vehicle.setTotalSeats(totalSeats);
 
-        vehicle = vehicleRepository.save(vehicle);
-
-        // Generate seats for train
-        List<Seat> seats = new ArrayList<>();
-        for (int i = 1; i <= totalSeats; i++) {
-            Seat seat = new Seat();
-            seat.setVehicleId(vehicle.getId());
-            seat.setSeatNumber("S" + i);
-            seat.setSeatType(Seat.SeatType.SEATER);
-            seat.setIsAvailable(true);
-            seats.add(seat);
-        }
-        seatRepository.saveAll(seats);
-
-        return vehicle;
-    }
-
-    private void generateSeatsForBus(Vehicle vehicle, Vehicle.BusType busType) {
-        List<Seat> seats = new ArrayList<>();
-
-        switch (busType) {
-            case SUPER_LUXURY:
-                for (int row = 1; row <= 10; row++) {
-                    for (char col : new char[] { 'A', 'B', 'C', 'D' }) {
-                        seats.add(createSeat(vehicle.getId(), row + String.valueOf(col), Seat.SeatType.SEATER));
-                    }
-                }
-                break;
-            case DELUXE:
-                for (int row = 1; row <= 11; row++) {
-                    for (char col : new char[] { 'A', 'B', 'C', 'D' }) {
-                        seats.add(createSeat(vehicle.getId(), row + String.valueOf(col), Seat.SeatType.SEATER));
-                        if (seats.size() >= 45)
-                            break;
-                    }
-                    if (seats.size() >= 45)
-                        break;
-                }
-                break;
-            case SLEEPER:
-                for (int i = 1; i <= 18; i++) {
-                    seats.add(createSeat(vehicle.getId(), "L" + i, Seat.SeatType.SLEEPER));
-                    seats.add(createSeat(vehicle.getId(), "U" + i, Seat.SeatType.SLEEPER));
-                }
-                break;
-            case SEATER:
-                for (int row = 1; row <= 11; row++) {
-                    for (char col : new char[] { 'A', 'B', 'C', 'D', 'E' }) {
-                        seats.add(createSeat(vehicle.getId(), row + String.valueOf(col), Seat.SeatType.SEATER));
-                        if (seats.size() >= 52)
-                            break;
-                    }
-                    if (seats.size() >= 52)
-                        break;
-                }
-                break;
-        }
-
-        seatRepository.saveAll(seats);
-    }
-
-    private Seat createSeat(Long vehicleId, String seatNumber, Seat.SeatType seatType) {
-        Seat seat = new Seat();
-        seat.setVehicleId(vehicleId);
-        seat.setSeatNumber(seatNumber);
-        seat.setSeatType(seatType);
-        seat.setIsAvailable(true);
-        return seat;
+        return vehicleRepository.save(vehicle);
     }
 
     private List<Route> createSampleRoutes() {
@@ -246,6 +174,7 @@ public class DataSeeder {
 
     private void createSampleSchedules(List<Vehicle> vehicles, List<Route> routes) {
         LocalDate today = LocalDate.now();
+        List<Schedule> schedules = new ArrayList<>();
 
         // Create schedules for next 7 days
         for (int day = 0; day < 7; day++) {
@@ -257,24 +186,28 @@ public class DataSeeder {
                 Route route = routes.get(i % routes.size());
 
                 // Morning schedule
-                createSchedule(vehicle, route, scheduleDate,
+                schedules.add(createSchedule(vehicle, route, scheduleDate,
                         LocalTime.of(6, 0), LocalTime.of(10, 30),
-                        calculatePrice(route.getDistanceKm(), 1.0));
+                        calculatePrice(route.getDistanceKm(), 1.0)));
 
                 // Afternoon schedule
-                createSchedule(vehicle, route, scheduleDate,
+                schedules.add(createSchedule(vehicle, route, scheduleDate,
                         LocalTime.of(14, 0), LocalTime.of(18, 30),
-                        calculatePrice(route.getDistanceKm(), 1.2));
+                        calculatePrice(route.getDistanceKm(), 1.2)));
 
                 // Evening schedule
-                createSchedule(vehicle, route, scheduleDate,
+                schedules.add(createSchedule(vehicle, route, scheduleDate,
                         LocalTime.of(20, 0), LocalTime.of(0, 30),
-                        calculatePrice(route.getDistanceKm(), 1.5));
+                        calculatePrice(route.getDistanceKm(), 1.5)));
             }
         }
+
+        // One batched insert instead of a round-trip per schedule
+        scheduleRepository.insertAll(schedules);
+        ownerStatsService.recordSchedulesCreated(schedules.stream().map(Schedule::getId).toList());
     }
 
-    private void createSchedule(Vehicle vehicle, Route route, LocalDate date,
+    private Schedule createSchedule(Vehicle vehicle, Route route, LocalDate date,
             LocalTime departure, LocalTime arrival, Double price) {
         Schedule schedule = new Schedule();
         schedule.setVehicleId(vehicle.getId());
@@ -284,7 +217,7 @@ public class DataSeeder {
         schedule.setArrivalTime(arrival);
         schedule.setPrice(price);
         schedule.setAvailableSeats(vehicle.getTotalSeats());
-        scheduleRepository.save(schedule);
+        return schedule;
     }
 
     private Double calculatePrice(Double distanceKm, Double multiplier) {
@@ -0,0 +1,139 @@
+package com.yatranow.config;
+
+import com.yatranow.service.ImageService;
+import com.yatranow.service.ImageStore;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.core.io.Resource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Moves image bytes out of MySQL into the ImageStore: first the data column
+ * of the images table, then the old owners.agency_image and
+ * complaints.complaint_image LONGBLOB columns. One row at a time, each blob
+ * is streamed into the store and replaced by its hash, and the old column is
+ * cleared. Images without a recorded content type get one from their magic
+ * bytes. Does nothing once the old columns are empty or gone.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class LegacyImageMigration implements CommandLineRunner {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ImageStore imageStore;
+
+    @Override
+    public void run(String... args) {
+        migrateImagesTable();
+        migrate("owners", "agency_image", "agency_image_id");
+        migrate("complaints", "complaint_image", "complaint_image_id");
+        fillContentTypes();
+    }
+
+    private void migrateImagesTable() {
+        if (!columnExists("images", "data")) {
+            return;
+        }
+
+        List<Long> imageIds = jdbcTemplate.queryForList(
+                "SELECT id FROM images WHERE data IS NOT NULL AND content_hash IS NULL", Long.class);
+        if (!imageIds.isEmpty()) {
+            log.info("Moving {} images from images.data to the image store...", imageIds.size());
+            for (Long imageId : imageIds) {
+                ImageStore.Blob blob = readIntoStore("images", "data", imageId);
+                jdbcTemplate.update("UPDATE images SET content_hash = ?, size_bytes = ? WHERE id = ?",
+                        blob.hash(), blob.size(), imageId);
+            }
+        }
+
+        // Every row has its hash now, so the bytes can go
+        jdbcTemplate.execute("ALTER TABLE images DROP COLUMN data");
+        log.info("Image store migration completed.");
+    }
+
+    private void migrate(String table, String blobColumn, String idColumn) {
+        if (!columnExists(table, blobColumn)) {
+            return;
+        }
+
+        List<Long> rowIds = jdbcTemplate.queryForList(
+                "SELECT id FROM " + table + " WHERE LENGTH(" + blobColumn + ") > 0 AND " + idColumn + " IS NULL",
+                Long.class);
+        if (rowIds.isEmpty()) {
+            return;
+        }
+
+        log.info("Moving {} images from {}.{} to the image store...", rowIds.size(), table, blobColumn);
+        for (Long rowId : rowIds) {
+            ImageStore.Blob blob = readIntoStore(table, blobColumn, rowId);
+
+            KeyHolder keyHolder = new GeneratedKeyHolder();
+            jdbcTemplate.update(connection -> {
+                PreparedStatement ps = connection.prepareStatement(
+                        "INSERT INTO images (content_hash, size_bytes, created_at) VALUES (?, ?, NOW())",
+                        Statement.RETURN_GENERATED_KEYS);
+                ps.setString(1, blob.hash());
+                ps.setLong(2, blob.size());
+                return ps;
+            }, keyHolder);
+
+            jdbcTemplate.update(
+                    "UPDATE " + table + " SET " + idColumn + " = ?, " + blobColumn + " = NULL WHERE id = ?",
+                    keyHolder.getKey().longValue(), rowId);
+        }
+        log.info("Image migration for {} completed.", table);
+    }
+
+    // Images stored before the type was recorded get it from their leading bytes
+    private void fillContentTypes() {
+        List<Map<String, Object>> rows = jdbcTemplate.queryForList(
+                "SELECT id, content_hash FROM images WHERE content_type IS NULL AND content_hash IS NOT NULL");
+        for (Map<String, Object> row : rows) {
+            Resource resource = imageStore.get((String) row.get("content_hash"));
+            if (resource == null) {
+                continue;
+            }
+            String contentType;
+            try (InputStream in = resource.getInputStream()) {
+                contentType = ImageService.contentTypeOf(in.readNBytes(ImageService.MAGIC_LENGTH));
+            } catch (IOException e) {
+                log.warn("Could not read image {}: {}", row.get("id"), e.getMessage());
+                continue;
+            }
+            jdbcTemplate.update("UPDATE images SET content_type = ? WHERE id = ?",
+                    contentType != null ? contentType : "image/jpeg", row.get("id"));
+        }
+    }
+
+    private ImageStore.Blob readIntoStore(String table, String blobColumn, Long rowId) {
+        return jdbcTemplate.query("SELECT " + blobColumn + " FROM " + table + " WHERE id = ?", rs -> {
+            rs.next();
+            try (InputStream in = rs.getBinaryStream(1)) {
+                return imageStore.put(in);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to move image " + table + "#" + rowId, e);
+            }
+        }, rowId);
+    }
+
+    private boolean columnExists(String table, String column) {
+        Integer columnCount = jdbcTemplate.queryForObject("""
+                SELECT COUNT(*) FROM information_schema.columns
+                WHERE table_schema = DATABASE() AND table_name = ? AND column_name = ?
+                """, Integer.class, table, column);
+        return columnCount != null && columnCount > 0;
+    }
+}
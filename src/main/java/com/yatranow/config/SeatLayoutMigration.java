@@ -0,0 +1,66 @@
+package com.yatranow.config;
+
+import com.yatranow.entity.Seat;
+import com.yatranow.entity.Vehicle;
+import com.yatranow.repository.SeatRepository;
+import com.yatranow.repository.VehicleRepository;
+import com.yatranow.service.SeatLayout;
+import com.yatranow.service.SeatLayoutRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Removes seat rows that only repeat the vehicle's shared layout template,
+ * left over from when every vehicle got one row per seat. Rows that differ
+ * from the template are kept as overrides. Does nothing once the seats table
+ * is empty.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class SeatLayoutMigration implements CommandLineRunner {
+
+    private final VehicleRepository vehicleRepository;
+    private final SeatRepository seatRepository;
+    private final SeatLayoutRegistry seatLayoutRegistry;
+
+    @Override
+    public void run(String... args) {
+        if (seatRepository.count() == 0) {
+            return;
+        }
+
+        long removed = 0;
+        for (Vehicle vehicle : vehicleRepository.findAll()) {
+            List<Seat> seats = seatRepository.findByVehicleId(vehicle.getId());
+            if (seats.isEmpty()) {
+                continue;
+            }
+
+            SeatLayout template;
+            try {
+                template = seatLayoutRegistry.templateFor(vehicle);
+            } catch (IllegalArgumentException e) {
+                log.warn("Keeping seat rows of vehicle {}: {}", vehicle.getId(), e.getMessage());
+                continue;
+            }
+
+            List<Long> redundant = seats.stream()
+                    .filter(template::isRedundant)
+                    .map(Seat::getId)
+                    .toList();
+            if (!redundant.isEmpty()) {
+                seatRepository.deleteAllByIdInBatch(redundant);
+                removed += redundant.size();
+            }
+        }
+
+        if (removed > 0) {
+            log.info("Removed {} seat rows now covered by shared seat layouts.", removed);
+        }
+    }
+}
@@ -43,7 +43,9 @@ public class SecurityConfig {
                         // Public endpoints
                         .requestMatchers("/api/auth/**").permitAll()
                         .requestMatchers(HttpMethod.GET, "/api/public/search").permitAll()
+                        .requestMatchers(HttpMethod.GET, "/api/public/search/scroll").permitAll()
                         .requestMatchers(HttpMethod.GET, "/api/public/routes").permitAll()
+                        .requestMatchers(HttpMethod.GET, "/api/public/routes/stream").permitAll()
                         .requestMatchers(HttpMethod.GET, "/api/public/route-list").permitAll()
                         .requestMatchers(HttpMethod.GET, "/api/public/seats/**").permitAll()
                         .requestMatchers(HttpMethod.GET, "/api/public/images/**").permitAll()
@@ -1,9 +1,14 @@
 package com.yatranow.controller;
 
+import com.yatranow.dto.ArchivedSchedule;
+import com.yatranow.dto.BookingResponse;
 import com.yatranow.entity.Booking;
+import com.yatranow.entity.DeletionJob;
 import com.yatranow.entity.Owner;
 import com.yatranow.entity.User;
 import com.yatranow.service.AdminService;
+import com.yatranow.service.DeletionJobService;
+import com.yatranow.service.ScheduleArchive;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
@@ -11,6 +16,9 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.net.URI;
+import java.time.LocalDate;
+import java.util.List;
 import java.util.Map;
 
 @RestController
@@ -19,6 +27,8 @@ import java.util.Map;
 public class AdminController {
 
     private final AdminService adminService;
+    private final DeletionJobService deletionJobService;
+    private final ScheduleArchive scheduleArchive;
 
     @GetMapping("/users")
     public ResponseEntity<Page<User>> getAllUsers(
@@ -69,10 +79,31 @@ public class AdminController {
                 "isBlocked", owner.getIsBlocked()));
     }
 
+    // Runs in the background; poll the returned job for progress
     @DeleteMapping("/owners/{id}")
-    public ResponseEntity<Map<String, String>> deleteOwner(@PathVariable Long id) {
-        adminService.deleteOwner(id);
-        return ResponseEntity.ok(Map.of("message", "Owner deleted successfully"));
+    public ResponseEntity<DeletionJob> deleteOwner(@PathVariable Long id) {
+        DeletionJob job = deletionJobService.submitOwnerDeletion(id);
+        return ResponseEntity.accepted()
+                .location(URI.create("/api/admin/jobs/" + job.getId()))
+                .body(job);
+    }
+
+    @GetMapping("/jobs/{id}")
+    public ResponseEntity<DeletionJob> getDeletionJob(@PathVariable Long id) {
+        return ResponseEntity.ok(deletionJobService.getJob(id));
+    }
+
+    @GetMapping("/archive/schedules")
+    public ResponseEntity<List<ArchivedSchedule>> getArchivedSchedules(@RequestParam LocalDate date) {
+        return ResponseEntity.ok(scheduleArchive.findSchedules(date));
+    }
+
+    @GetMapping("/archive/bookings")
+    public ResponseEntity<List<BookingResponse>> getArchivedBookings(
+            @RequestParam LocalDate fromDate,
+            @RequestParam LocalDate toDate,
+            @RequestParam(required = false) Long userId) {
+        return ResponseEntity.ok(scheduleArchive.findBookings(fromDate, toDate, userId));
     }
 
 }
@@ -1,5 +1,9 @@
 package com.yatranow.controller;
 
+import com.yatranow.dto.BookingResponse;
+import com.yatranow.dto.OwnerDashboardResponse;
+import com.yatranow.dto.RecurringScheduleRequest;
+import com.yatranow.dto.RecurringScheduleResponse;
 import com.yatranow.dto.RouteCreateRequest;
 import com.yatranow.dto.ScheduleCreateRequest;
 import com.yatranow.dto.VehicleCreateRequest;
@@ -8,10 +12,14 @@ import com.yatranow.service.OwnerService;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDate;
 import java.util.List;
 import java.util.Map;
 
@@ -73,6 +81,16 @@ public class OwnerController {
 
     }
 
+    // Same trip on every selected weekday between startDate and endDate
+    @PostMapping("/schedules/recurring")
+    public ResponseEntity<RecurringScheduleResponse> createRecurringSchedules(
+            @Valid @RequestBody RecurringScheduleRequest request,
+            HttpServletRequest httpRequest) {
+        Long ownerId = (Long) httpRequest.getAttribute("userId");
+        RecurringScheduleResponse response = ownerService.createRecurringSchedules(request, ownerId);
+        return new ResponseEntity<>(response, HttpStatus.CREATED);
+    }
+
     @GetMapping("/schedules")
     public ResponseEntity<List<Schedule>> getMySchedules(HttpServletRequest httpRequest) {
         Long ownerId = (Long) httpRequest.getAttribute("userId");
@@ -89,12 +107,30 @@ public class OwnerController {
     }
 
     @GetMapping("/bookings")
-    public ResponseEntity<List<com.yatranow.dto.BookingResponse>> getMyBookings(HttpServletRequest httpRequest) {
+    public ResponseEntity<Page<BookingResponse>> getMyBookings(
+            @RequestParam(required = false) Long scheduleId,
+            @RequestParam(required = false) LocalDate fromDate,
+            @RequestParam(required = false) LocalDate toDate,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size,
+            HttpServletRequest httpRequest) {
         Long ownerId = (Long) httpRequest.getAttribute("userId");
-        List<com.yatranow.dto.BookingResponse> bookings = ownerService.getMyBookings(ownerId);
+        Pageable pageable = PageRequest.of(Math.max(0, page), Math.max(1, Math.min(size, 100)));
+        Page<BookingResponse> bookings = ownerService.getMyBookings(ownerId, scheduleId, fromDate, toDate, pageable);
         return ResponseEntity.ok(bookings);
     }
 
+    // Occupancy, revenue and cancellations from the rollup table; defaults to 30 days either side of today
+    @GetMapping("/dashboard")
+    public ResponseEntity<OwnerDashboardResponse> getDashboard(
+            @RequestParam(required = false) LocalDate fromDate,
+            @RequestParam(required = false) LocalDate toDate,
+            HttpServletRequest httpRequest) {
+        Long ownerId = (Long) httpRequest.getAttribute("userId");
+        OwnerDashboardResponse dashboard = ownerService.getDashboard(ownerId, fromDate, toDate);
+        return ResponseEntity.ok(dashboard);
+    }
+
     @GetMapping("/complaints")
     public ResponseEntity<List<Complaint>> getMyComplaints(HttpServletRequest httpRequest) {
         Long ownerId = (Long) httpRequest.getAttribute("userId");
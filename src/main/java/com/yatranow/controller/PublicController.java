@@ -1,37 +1,57 @@
 package com.yatranow.controller;
 
+import com.yatranow.dto.CursorPage;
 import com.yatranow.dto.SearchRequest;
 import com.yatranow.dto.SearchResponse;
 import com.yatranow.entity.Complaint;
 import com.yatranow.entity.Owner;
 import com.yatranow.entity.Route;
+import com.yatranow.entity.StoredImage;
 import com.yatranow.exception.ResourceNotFoundException;
 import com.yatranow.repository.ComplaintRepository;
 import com.yatranow.repository.OwnerRepository;
 import com.yatranow.repository.RouteRepository;
+import com.yatranow.service.ImageRendition;
+import com.yatranow.service.ImageService;
+import com.yatranow.service.SeatMapBroadcaster;
 import com.yatranow.service.UserService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.core.io.Resource;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
-import org.springframework.http.HttpHeaders;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
 import java.util.stream.Collectors;
 import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.concurrent.TimeUnit;
 
 @RestController
 @RequestMapping("/api/public")
 @RequiredArgsConstructor
 public class PublicController {
 
+    private static final CacheControl IMAGE_CACHE = CacheControl.maxAge(365, TimeUnit.DAYS)
+            .cachePublic()
+            .immutable();
+    // The original served in place of a rendition not rendered yet; the URL will soon return other bytes
+    private static final CacheControl PENDING_IMAGE_CACHE = CacheControl.maxAge(60, TimeUnit.SECONDS)
+            .cachePublic();
+
     private final UserService userService;
+    private final ImageService imageService;
+    private final SeatMapBroadcaster seatMapBroadcaster;
     private final OwnerRepository ownerRepository;
     private final ComplaintRepository complaintRepository;
     private final RouteRepository routeRepository;
@@ -42,6 +62,15 @@ public class PublicController {
         return ResponseEntity.ok(routes);
     }
 
+    // Same data as /routes, streamed as NDJSON so memory stays flat for large catalogues
+    @GetMapping(value = "/routes/stream", produces = "application/x-ndjson")
+    public ResponseEntity<StreamingResponseBody> streamAllRoutes() {
+        StreamingResponseBody body = userService::writeAllSchedulesAsNdjson;
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType("application/x-ndjson"))
+                .body(body);
+    }
+
     @GetMapping("/route-list")
     public ResponseEntity<List<Route>> getRouteList() {
         List<Route> routes = routeRepository.findAll();
@@ -54,6 +83,12 @@ public class PublicController {
         return ResponseEntity.ok(bookedSeats);
     }
 
+    // Live seat map: a "snapshot" event first, then "seats" deltas as seats are booked, held or released
+    @GetMapping(value = "/seats/{scheduleId}/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamSeats(@PathVariable Long scheduleId) {
+        return seatMapBroadcaster.subscribe(scheduleId, () -> userService.getSeatMapSnapshot(scheduleId));
+    }
+
     @GetMapping("/search")
     public ResponseEntity<Page<SearchResponse>> searchVehicles(
             @RequestParam String from,
@@ -76,33 +111,89 @@ public class PublicController {
         return ResponseEntity.ok(results);
     }
 
+    // Keyset-paginated search for infinite scrolling: no total count, constant cost per page
+    @GetMapping("/search/scroll")
+    public ResponseEntity<CursorPage<SearchResponse>> scrollVehicles(
+            @RequestParam String from,
+            @RequestParam String to,
+            @RequestParam LocalDate date,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "price") String sortBy) {
+
+        SearchRequest request = new SearchRequest(from.trim(), to.trim(), date);
+        int pageSize = Math.max(1, Math.min(size, 100));
+
+        CursorPage<SearchResponse> results = userService.scrollVehicles(request, sortBy, cursor, pageSize);
+        return ResponseEntity.ok(results);
+    }
+
     @GetMapping("/images/agency/{ownerId}")
-    public ResponseEntity<byte[]> getAgencyImage(@PathVariable Long ownerId) {
+    public ResponseEntity<Resource> getAgencyImage(
+            @PathVariable Long ownerId,
+            @RequestParam(defaultValue = "full") String size,
+            WebRequest webRequest) {
         Owner owner = ownerRepository.findById(ownerId)
                 .orElseThrow(() -> new ResourceNotFoundException("Owner not found"));
 
-        if (owner.getAgencyImage() == null) {
-            return ResponseEntity.notFound().build();
-        }
-
-        HttpHeaders headers = new HttpHeaders();
-        headers.setContentType(MediaType.IMAGE_JPEG);
-
-        return new ResponseEntity<>(owner.getAgencyImage(), headers, HttpStatus.OK);
+        return imageResponse(imageService.findImage(owner.getAgencyImageId()), ImageRendition.fromParam(size),
+                webRequest);
     }
 
     @GetMapping("/images/complaint/{complaintId}")
-    public ResponseEntity<byte[]> getComplaintImage(@PathVariable Long complaintId) {
+    public ResponseEntity<Resource> getComplaintImage(
+            @PathVariable Long complaintId,
+            @RequestParam(defaultValue = "full") String size,
+            WebRequest webRequest) {
         Complaint complaint = complaintRepository.findById(complaintId)
                 .orElseThrow(() -> new ResourceNotFoundException("Complaint not found"));
 
-        if (complaint.getComplaintImage() == null) {
+        return imageResponse(imageService.findImage(complaint.getComplaintImageId()), ImageRendition.fromParam(size),
+                webRequest);
+    }
+
+    /**
+     * Streams the stored file of the requested rendition, or the original while
+     * the rendition is not ready; the bytes are never loaded into memory as a whole.
+     * Stored bytes never change, so the content hash is a strong ETag and the
+     * response may be cached for good, except while the original stands in
+     * for a rendition that is still being produced. A matching If-None-Match gets a 304
+     * before the file is opened, and Range requests are answered with 206 by
+     * Spring's resource region support.
+     */
+    private ResponseEntity<Resource> imageResponse(StoredImage image, ImageRendition rendition,
+            WebRequest webRequest) {
+        if (image == null || image.getContentHash() == null) {
             return ResponseEntity.notFound().build();
         }
 
-        HttpHeaders headers = new HttpHeaders();
-        headers.setContentType(MediaType.IMAGE_JPEG);
+        String hash = ImageService.servedHash(image, rendition);
+        String etag = "\"" + hash + "\"";
+        CacheControl cacheControl = ImageService.isRenditionPending(image, rendition)
+                ? PENDING_IMAGE_CACHE
+                : IMAGE_CACHE;
+        long lastModified = image.getCreatedAt() != null
+                ? image.getCreatedAt().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli()
+                : -1;
+        // Sets the 304 status along with ETag and Last-Modified
+        if (webRequest.checkNotModified(etag, lastModified)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).cacheControl(cacheControl).build();
+        }
+
+        Resource resource = imageService.openImage(hash);
+        if (resource == null) {
+            return ResponseEntity.notFound().build();
+        }
 
-        return new ResponseEntity<>(complaint.getComplaintImage(), headers, HttpStatus.OK);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(image.getContentType() != null
+                        ? MediaType.parseMediaType(image.getContentType())
+                        : MediaType.IMAGE_JPEG)
+                .eTag(etag)
+                .cacheControl(cacheControl);
+        if (lastModified > 0) {
+            response.lastModified(lastModified);
+        }
+        return response.body(resource);
     }
 }
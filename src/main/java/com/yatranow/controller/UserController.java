@@ -3,7 +3,12 @@ package com.yatranow.controller;
 import com.yatranow.dto.BookingRequest;
 import com.yatranow.dto.BookingResponse;
 import com.yatranow.dto.ComplaintRequest;
+import com.yatranow.dto.CursorPage;
+import com.yatranow.dto.GroupBookingRequest;
+import com.yatranow.dto.SeatHoldRequest;
+import com.yatranow.dto.SeatHoldResponse;
 import com.yatranow.entity.Complaint;
+import com.yatranow.service.ScheduleArchive;
 import com.yatranow.service.UserService;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
@@ -13,7 +18,9 @@ import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDate;
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/user")
@@ -21,6 +28,7 @@ import java.util.List;
 public class UserController {
 
     private final UserService userService;
+    private final ScheduleArchive scheduleArchive;
 
     @PostMapping("/bookings")
     public ResponseEntity<BookingResponse> bookTicket(
@@ -31,13 +39,56 @@ public class UserController {
         return new ResponseEntity<>(response, HttpStatus.CREATED);
     }
 
+    @PostMapping("/bookings/group")
+    public ResponseEntity<List<BookingResponse>> bookGroup(
+            @Valid @RequestBody GroupBookingRequest request,
+            HttpServletRequest httpRequest) {
+        Long userId = (Long) httpRequest.getAttribute("userId");
+        List<BookingResponse> responses = userService.bookGroup(request, userId);
+        return new ResponseEntity<>(responses, HttpStatus.CREATED);
+    }
+
+    // Reserve seats for a few minutes while the user completes checkout
+    @PostMapping("/holds")
+    public ResponseEntity<SeatHoldResponse> holdSeats(
+            @Valid @RequestBody SeatHoldRequest request,
+            HttpServletRequest httpRequest) {
+        Long userId = (Long) httpRequest.getAttribute("userId");
+        SeatHoldResponse response = userService.holdSeats(request, userId);
+        return new ResponseEntity<>(response, HttpStatus.CREATED);
+    }
+
+    @DeleteMapping("/holds/{holdId}")
+    public ResponseEntity<Map<String, String>> releaseHold(
+            @PathVariable String holdId, HttpServletRequest httpRequest) {
+        Long userId = (Long) httpRequest.getAttribute("userId");
+        userService.releaseHold(holdId, userId);
+        return ResponseEntity.ok(Map.of("message", "Hold released successfully"));
+    }
+
+    // Keyset-paginated history: scope=upcoming (soonest first) or scope=past (most recent first)
     @GetMapping("/bookings")
-    public ResponseEntity<List<BookingResponse>> getMyBookings(HttpServletRequest httpRequest) {
+    public ResponseEntity<CursorPage<BookingResponse>> getMyBookings(
+            @RequestParam(defaultValue = "upcoming") String scope,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size,
+            HttpServletRequest httpRequest) {
         Long userId = (Long) httpRequest.getAttribute("userId");
-        List<BookingResponse> bookings = userService.getMyBookings(userId);
+        int pageSize = Math.max(1, Math.min(size, 100));
+        CursorPage<BookingResponse> bookings = userService.getMyBookings(userId, scope, cursor, pageSize);
         return ResponseEntity.ok(bookings);
     }
 
+    // Bookings on trips that have been moved to the archive by the nightly cleanup
+    @GetMapping("/bookings/archive")
+    public ResponseEntity<List<BookingResponse>> getMyArchivedBookings(
+            @RequestParam LocalDate fromDate,
+            @RequestParam LocalDate toDate,
+            HttpServletRequest httpRequest) {
+        Long userId = (Long) httpRequest.getAttribute("userId");
+        return ResponseEntity.ok(scheduleArchive.findBookings(fromDate, toDate, userId));
+    }
+
     @PostMapping(value = "/complaints", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
     public ResponseEntity<Complaint> submitComplaint(
             @Valid @ModelAttribute ComplaintRequest request,
@@ -0,0 +1,14 @@
+package com.yatranow.dto;
+
+import java.time.LocalDateTime;
+
+public record ArchivedBooking(
+        Long bookingId,
+        Long userId,
+        String seatNumber,
+        String passengerName,
+        Integer passengerAge,
+        String passengerGender,
+        LocalDateTime bookingDate,
+        String status) {
+}
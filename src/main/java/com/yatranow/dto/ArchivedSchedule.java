@@ -0,0 +1,48 @@
+package com.yatranow.dto;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.List;
+
+// One line of an archive file: a past schedule with everything needed to show its bookings
+public record ArchivedSchedule(
+        Long scheduleId,
+        Long vehicleId,
+        String vehicleName,
+        String vehicleNumber,
+        Long ownerId,
+        String fromLocation,
+        String toLocation,
+        LocalDate scheduleDate,
+        LocalTime departureTime,
+        LocalTime arrivalTime,
+        Double price,
+        LocalDateTime archivedAt,
+        List<ArchivedBooking> bookings) {
+
+    public ArchivedSchedule withBookings(List<ArchivedBooking> bookings) {
+        return new ArchivedSchedule(scheduleId, vehicleId, vehicleName, vehicleNumber, ownerId, fromLocation,
+                toLocation, scheduleDate, departureTime, arrivalTime, price, archivedAt, bookings);
+    }
+
+    public BookingResponse toBookingResponse(ArchivedBooking booking) {
+        return new BookingResponse(
+                booking.bookingId(),
+                scheduleId,
+                booking.seatNumber(),
+                booking.passengerName(),
+                booking.passengerAge(),
+                booking.passengerGender(),
+                vehicleName,
+                vehicleNumber,
+                fromLocation,
+                toLocation,
+                scheduleDate,
+                departureTime != null ? departureTime.toString() : null,
+                arrivalTime != null ? arrivalTime.toString() : null,
+                price,
+                booking.bookingDate(),
+                booking.status());
+    }
+}
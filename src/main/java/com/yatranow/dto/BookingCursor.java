@@ -0,0 +1,47 @@
+package com.yatranow.dto;
+
+import com.yatranow.exception.BadRequestException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.Base64;
+
+/**
+ * Position in a user's booking history, ordered by trip date and departure
+ * time with the booking id as tie-breaker. Sent to clients as an opaque token.
+ */
+public record BookingCursor(String scope, LocalDate lastScheduleDate, LocalTime lastDepartureTime,
+        Long lastBookingId) {
+
+    public static final String SCOPE_UPCOMING = "upcoming";
+    public static final String SCOPE_PAST = "past";
+
+    public static BookingCursor after(String scope, BookingResponse last) {
+        return new BookingCursor(scope, last.scheduleDate(), LocalTime.parse(last.departureTime()),
+                last.bookingId());
+    }
+
+    public static String normalizeScope(String scope) {
+        return SCOPE_PAST.equals(scope) ? SCOPE_PAST : SCOPE_UPCOMING;
+    }
+
+    public String encode() {
+        String raw = scope + "|" + lastScheduleDate + "|" + lastDepartureTime + "|" + lastBookingId;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static BookingCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\|");
+            if (!SCOPE_UPCOMING.equals(parts[0]) && !SCOPE_PAST.equals(parts[0])) {
+                throw new IllegalArgumentException("Unknown scope");
+            }
+            return new BookingCursor(parts[0], LocalDate.parse(parts[1]), LocalTime.parse(parts[2]),
+                    Long.parseLong(parts[3]));
+        } catch (RuntimeException e) {
+            throw new BadRequestException("Invalid cursor");
+        }
+    }
+}
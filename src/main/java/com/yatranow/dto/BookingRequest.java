@@ -11,5 +11,8 @@ public record BookingRequest(
 
         @NotNull(message = "Passenger age is required") @Min(value = 1, message = "Passenger age must be at least 1") @Max(value = 120, message = "Passenger age must be at most 120") Integer passengerAge,
 
-        @NotBlank(message = "Passenger gender is required") @Pattern(regexp = "^(Male|Female|Other)$", message = "Gender must be Male, Female, or Other") String passengerGender) {
+        @NotBlank(message = "Passenger gender is required") @Pattern(regexp = "^(Male|Female|Other)$", message = "Gender must be Male, Female, or Other") String passengerGender,
+
+        // Optional: the hold taken for this seat, consumed by the booking
+        String holdId) {
 }
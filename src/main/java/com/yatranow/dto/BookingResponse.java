@@ -1,6 +1,10 @@
 package com.yatranow.dto;
 
+import com.yatranow.entity.Booking;
+
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.LocalTime;
 
 public record BookingResponse(
         Long bookingId,
@@ -13,9 +17,36 @@ public record BookingResponse(
         String vehicleNumber,
         String fromLocation,
         String toLocation,
+        LocalDate scheduleDate,
         String departureTime,
         String arrivalTime,
         Double price,
         LocalDateTime bookingDate,
         String status) {
+
+    // Used by the JPQL constructor projections in BookingRepository
+    public BookingResponse(
+            Long bookingId,
+            Long scheduleId,
+            String seatNumber,
+            String passengerName,
+            Integer passengerAge,
+            String passengerGender,
+            String vehicleName,
+            String vehicleNumber,
+            String fromLocation,
+            String toLocation,
+            LocalDate scheduleDate,
+            LocalTime departureTime,
+            LocalTime arrivalTime,
+            Double price,
+            LocalDateTime bookingDate,
+            Booking.BookingStatus status) {
+        this(bookingId, scheduleId, seatNumber, passengerName, passengerAge, passengerGender,
+                vehicleName, vehicleNumber, fromLocation, toLocation, scheduleDate,
+                departureTime != null ? departureTime.toString() : null,
+                arrivalTime != null ? arrivalTime.toString() : null,
+                price, bookingDate,
+                status != null ? status.name() : "CONFIRMED");
+    }
 }
@@ -0,0 +1,13 @@
+package com.yatranow.dto;
+
+import java.util.List;
+
+/**
+ * One page of a keyset-paginated listing. Pass nextCursor back as the
+ * cursor parameter to get the following page; it is null on the last page.
+ */
+public record CursorPage<T>(
+        List<T> content,
+        String nextCursor,
+        boolean hasNext) {
+}
@@ -0,0 +1,46 @@
+package com.yatranow.dto;
+
+import java.time.LocalDate;
+
+public record DashboardMetrics(
+        String key,
+        String label,
+        long seatsOffered,
+        long seatsSold,
+        double revenue,
+        long cancellations,
+        double occupancyPercent) {
+
+    // Totals, used by the JPQL constructor projections in OwnerDailyStatsRepository
+    public DashboardMetrics(Long seatsOffered, Long seatsSold, Double revenue, Long cancellations) {
+        this("total", "All vehicles and routes", seatsOffered, seatsSold, revenue, cancellations);
+    }
+
+    // Per route or per vehicle
+    public DashboardMetrics(Long id, String label, Long seatsOffered, Long seatsSold, Double revenue,
+            Long cancellations) {
+        this(String.valueOf(id), label, seatsOffered, seatsSold, revenue, cancellations);
+    }
+
+    // Per trip day
+    public DashboardMetrics(LocalDate date, Long seatsOffered, Long seatsSold, Double revenue, Long cancellations) {
+        this(date.toString(), date.toString(), seatsOffered, seatsSold, revenue, cancellations);
+    }
+
+    private DashboardMetrics(String key, String label, Long seatsOffered, Long seatsSold, Double revenue,
+            Long cancellations) {
+        this(key, label,
+                seatsOffered != null ? seatsOffered : 0L,
+                seatsSold != null ? seatsSold : 0L,
+                revenue != null ? Math.round(revenue * 100.0) / 100.0 : 0.0,
+                cancellations != null ? cancellations : 0L,
+                occupancyPercent(seatsSold, seatsOffered));
+    }
+
+    private static double occupancyPercent(Long seatsSold, Long seatsOffered) {
+        if (seatsSold == null || seatsOffered == null || seatsOffered <= 0) {
+            return 0.0;
+        }
+        return Math.round(seatsSold * 10000.0 / seatsOffered) / 100.0;
+    }
+}
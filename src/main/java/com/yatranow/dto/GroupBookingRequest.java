@@ -0,0 +1,25 @@
+package com.yatranow.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.*;
+
+import java.util.List;
+
+public record GroupBookingRequest(
+        @NotNull(message = "Schedule ID is required") Long scheduleId,
+
+        @NotEmpty(message = "At least one passenger is required") @Size(max = 10, message = "At most 10 seats can be booked at once") List<@Valid Passenger> passengers,
+
+        // Optional: the hold taken for these seats, consumed by the booking
+        String holdId) {
+
+    public record Passenger(
+            @NotBlank(message = "Seat number is required") String seatNumber,
+
+            @NotBlank(message = "Passenger name is required") @Size(min = 2, max = 100, message = "Passenger name must be between 2 and 100 characters") String passengerName,
+
+            @NotNull(message = "Passenger age is required") @Min(value = 1, message = "Passenger age must be at least 1") @Max(value = 120, message = "Passenger age must be at most 120") Integer passengerAge,
+
+            @NotBlank(message = "Passenger gender is required") @Pattern(regexp = "^(Male|Female|Other)$", message = "Gender must be Male, Female, or Other") String passengerGender) {
+    }
+}
@@ -0,0 +1,13 @@
+package com.yatranow.dto;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public record OwnerDashboardResponse(
+        LocalDate fromDate,
+        LocalDate toDate,
+        DashboardMetrics totals,
+        List<DashboardMetrics> byRoute,
+        List<DashboardMetrics> byVehicle,
+        List<DashboardMetrics> byDay) {
+}
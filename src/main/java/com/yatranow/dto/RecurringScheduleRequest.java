@@ -0,0 +1,32 @@
+package com.yatranow.dto;
+
+import jakarta.validation.constraints.FutureOrPresent;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.Set;
+
+public record RecurringScheduleRequest(
+        @NotNull(message = "Vehicle ID is required") Long vehicleId,
+
+        @NotNull(message = "Route ID is required") Long routeId,
+
+        @NotNull(message = "Departure time is required") LocalTime departureTime,
+
+        @NotNull(message = "Arrival time is required") LocalTime arrivalTime,
+
+        @NotNull(message = "Price is required") @Positive(message = "Price must be positive") Double price,
+
+        @NotNull(message = "Start date is required") @FutureOrPresent(message = "Start date cannot be in the past") LocalDate startDate,
+
+        @NotNull(message = "End date is required") LocalDate endDate,
+
+        @NotEmpty(message = "At least one day of the week is required") Set<DayOfWeek> daysOfWeek,
+
+        Boolean skipConflicts // Optional, when true conflicting dates are skipped instead of failing the request
+) {
+}
@@ -0,0 +1,11 @@
+package com.yatranow.dto;
+
+import com.yatranow.entity.Schedule;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public record RecurringScheduleResponse(
+        List<Schedule> created,
+        List<LocalDate> skippedDates) {
+}
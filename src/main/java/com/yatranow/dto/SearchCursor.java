@@ -0,0 +1,60 @@
+package com.yatranow.dto;
+
+import com.yatranow.exception.BadRequestException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalTime;
+import java.util.Base64;
+
+/**
+ * Position in a search result list sorted by price or departure time, with
+ * the schedule id as tie-breaker. Sent to clients as an opaque token.
+ */
+public record SearchCursor(String sortBy, String lastValue, Long lastScheduleId) {
+
+    public static final String SORT_BY_PRICE = "price";
+    public static final String SORT_BY_DEPARTURE_TIME = "departureTime";
+
+    public static SearchCursor after(String sortBy, SearchResponse last) {
+        String value = SORT_BY_DEPARTURE_TIME.equals(sortBy)
+                ? last.departureTime().toString()
+                : last.price().toString();
+        return new SearchCursor(sortBy, value, last.scheduleId());
+    }
+
+    public static String normalizeSortBy(String sortBy) {
+        return SORT_BY_DEPARTURE_TIME.equals(sortBy) ? SORT_BY_DEPARTURE_TIME : SORT_BY_PRICE;
+    }
+
+    public String encode() {
+        String raw = sortBy + "|" + lastValue + "|" + lastScheduleId;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static SearchCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\|");
+            SearchCursor cursor = new SearchCursor(parts[0], parts[1], Long.parseLong(parts[2]));
+            // Validate the value for the sort key
+            if (SORT_BY_DEPARTURE_TIME.equals(cursor.sortBy())) {
+                cursor.lastDepartureTime();
+            } else if (SORT_BY_PRICE.equals(cursor.sortBy())) {
+                cursor.lastPrice();
+            } else {
+                throw new IllegalArgumentException("Unknown sort key");
+            }
+            return cursor;
+        } catch (RuntimeException e) {
+            throw new BadRequestException("Invalid cursor");
+        }
+    }
+
+    public Double lastPrice() {
+        return Double.valueOf(lastValue);
+    }
+
+    public LocalTime lastDepartureTime() {
+        return LocalTime.parse(lastValue);
+    }
+}
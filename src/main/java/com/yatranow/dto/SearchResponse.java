@@ -1,5 +1,7 @@
 package com.yatranow.dto;
 
+import com.yatranow.entity.Vehicle;
+
 import java.time.LocalDate;
 import java.time.LocalTime;
 
@@ -20,4 +22,29 @@ public record SearchResponse(
         Long ownerId,
         String ownerName,
         String agencyName) {
+
+    // Used by the JPQL constructor projections in ScheduleRepository
+    public SearchResponse(
+            Long scheduleId,
+            Long vehicleId,
+            String vehicleName,
+            String vehicleNumber,
+            Vehicle.VehicleType vehicleType,
+            Vehicle.BusType busType,
+            String fromLocation,
+            String toLocation,
+            LocalDate scheduleDate,
+            LocalTime departureTime,
+            LocalTime arrivalTime,
+            Double price,
+            Integer availableSeats,
+            Long ownerId,
+            String ownerName,
+            String agencyName) {
+        this(scheduleId, vehicleId, vehicleName, vehicleNumber,
+                vehicleType.name(),
+                busType != null ? busType.name() : "N/A",
+                fromLocation, toLocation, scheduleDate, departureTime, arrivalTime,
+                price, availableSeats, ownerId, ownerName, agencyName);
+    }
 }
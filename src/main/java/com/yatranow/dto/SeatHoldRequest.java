@@ -0,0 +1,13 @@
+package com.yatranow.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+public record SeatHoldRequest(
+        @NotNull(message = "Schedule ID is required") Long scheduleId,
+
+        @NotEmpty(message = "At least one seat is required") @Size(max = 10, message = "At most 10 seats can be held at once") List<String> seatNumbers) {
+}
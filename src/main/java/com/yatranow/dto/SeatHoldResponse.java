@@ -0,0 +1,11 @@
+package com.yatranow.dto;
+
+import java.time.Instant;
+import java.util.List;
+
+public record SeatHoldResponse(
+        String holdId,
+        Long scheduleId,
+        List<String> seatNumbers,
+        Instant expiresAt) {
+}
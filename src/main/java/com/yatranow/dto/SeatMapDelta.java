@@ -0,0 +1,10 @@
+package com.yatranow.dto;
+
+import java.util.List;
+
+public record SeatMapDelta(
+        Long scheduleId,
+        List<String> booked,
+        List<String> held,
+        List<String> released) {
+}
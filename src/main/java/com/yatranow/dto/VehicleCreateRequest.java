@@ -1,6 +1,7 @@
 package com.yatranow.dto;
 
 import com.yatranow.entity.Vehicle;
+import jakarta.validation.constraints.Max;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Positive;
@@ -14,7 +15,8 @@ public record VehicleCreateRequest(
 
         Vehicle.BusType busType, // Required only if vehicleType is BUS
 
-        @Positive(message = "Total seats must be positive") Integer totalSeats // Optional, auto-calculated for buses
-                                                                               // based on busType
+        @Positive(message = "Total seats must be positive")
+        @Max(value = 2000, message = "Total seats must be at most 2000") Integer totalSeats // Optional, auto-calculated
+                                                                                           // for buses based on busType
 ) {
 }
@@ -36,9 +36,8 @@ public class Complaint {
     @Column(name = "complaint_text", nullable = false, columnDefinition = "TEXT")
     private String complaintText;
 
-    @Lob
-    @Column(name = "complaint_image", columnDefinition = "LONGBLOB")
-    private byte[] complaintImage;
+    @Column(name = "complaint_image_id")
+    private Long complaintImageId;
 
     @CreationTimestamp
     @Column(name = "created_at", updatable = false)
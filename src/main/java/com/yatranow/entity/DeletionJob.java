@@ -0,0 +1,74 @@
+package com.yatranow.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.time.LocalDateTime;
+
+/**
+ * A background deletion requested by an admin. Progress is written after
+ * every committed chunk. A running job is leased to the instance running it
+ * until lease_until; unfinished jobs whose lease has run out are picked up
+ * again by any instance.
+ */
+@Entity
+@Table(name = "deletion_jobs")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DeletionJob {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "target_type", nullable = false, length = 20)
+    private TargetType targetType;
+
+    @Column(name = "target_id", nullable = false)
+    private Long targetId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private Status status = Status.PENDING;
+
+    @Column(name = "schedules_total", nullable = false)
+    private Long schedulesTotal = 0L;
+
+    @Column(name = "schedules_deleted", nullable = false)
+    private Long schedulesDeleted = 0L;
+
+    // Instance running the job, see JobLockService
+    @Column
+    private String holder;
+
+    @Column(name = "lease_until")
+    private LocalDateTime leaseUntil;
+
+    @Column(name = "error_message", length = 500)
+    private String errorMessage;
+
+    @CreationTimestamp
+    @Column(name = "created_at", updatable = false)
+    private LocalDateTime createdAt;
+
+    @UpdateTimestamp
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    @Column(name = "finished_at")
+    private LocalDateTime finishedAt;
+
+    public enum TargetType {
+        OWNER
+    }
+
+    public enum Status {
+        PENDING, RUNNING, COMPLETED, FAILED
+    }
+}
@@ -0,0 +1,28 @@
+package com.yatranow.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Image blob that lost its last image row. The file is not deleted right
+ * away: OrphanedBlobSweeper removes it after a grace period, unless it has
+ * been referenced or stored again in the meantime.
+ */
+@Entity
+@Table(name = "orphaned_blobs")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrphanedBlob {
+
+    @Id
+    @Column(length = 64)
+    private String hash;
+
+    @Column(name = "orphaned_at", nullable = false)
+    private LocalDateTime orphanedAt;
+}
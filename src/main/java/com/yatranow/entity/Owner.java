@@ -25,9 +25,8 @@ public class Owner {
     @Column(name = "agency_name", nullable = false, length = 150)
     private String agencyName;
 
-    @Lob
-    @Column(name = "agency_image", columnDefinition = "LONGBLOB")
-    private byte[] agencyImage;
+    @Column(name = "agency_image_id")
+    private Long agencyImageId;
 
     @Column(nullable = false, unique = true, length = 100)
     private String email;
@@ -0,0 +1,50 @@
+package com.yatranow.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+/**
+ * Running totals for one owner, vehicle, route and trip day. Rows are only
+ * changed through the additive upserts in OwnerDailyStatsRepository, so
+ * they outlive the schedules and bookings they were counted from.
+ */
+@Entity
+@Table(name = "owner_daily_stats", uniqueConstraints = @UniqueConstraint(columnNames = { "owner_id", "vehicle_id",
+        "route_id", "stat_date" }))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OwnerDailyStats {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "owner_id", nullable = false)
+    private Long ownerId;
+
+    @Column(name = "vehicle_id", nullable = false)
+    private Long vehicleId;
+
+    @Column(name = "route_id", nullable = false)
+    private Long routeId;
+
+    @Column(name = "stat_date", nullable = false)
+    private LocalDate statDate;
+
+    @Column(name = "seats_offered", nullable = false)
+    private Long seatsOffered = 0L;
+
+    @Column(name = "seats_sold", nullable = false)
+    private Long seatsSold = 0L;
+
+    @Column(nullable = false)
+    private Double revenue = 0.0;
+
+    @Column(nullable = false)
+    private Long cancellations = 0L;
+}
@@ -0,0 +1,57 @@
+package com.yatranow.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+
+/**
+ * An image referenced by an owner or complaint. Only metadata lives here; the
+ * bytes are kept once per distinct content in the ImageStore under
+ * contentHash, next to the hashes of its renditions. Hash, size and type
+ * are nullable only for rows written before the store existed, until
+ * LegacyImageMigration has moved them.
+ */
+@Entity
+@Table(name = "images", indexes = @Index(name = "idx_images_content_hash", columnList = "content_hash"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StoredImage {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // SHA-256 of the bytes, hex encoded
+    @Column(name = "content_hash", length = 64)
+    private String contentHash;
+
+    @Column(name = "size_bytes")
+    private Long sizeBytes;
+
+    // Recorded at upload, so responses carry the real type of the stored bytes
+    @Column(name = "content_type", length = 50)
+    private String contentType;
+
+    // Downscaled copies in the ImageStore, null until the rendition pipeline has produced them
+    @Column(name = "thumbnail_hash", length = 64)
+    private String thumbnailHash;
+
+    @Column(name = "card_hash", length = 64)
+    private String cardHash;
+
+    @Column(name = "full_hash", length = 64)
+    private String fullHash;
+
+    // Set when the original could not be decoded; such images are served as uploaded and never retried
+    @Column(name = "rendition_failed")
+    private Boolean renditionFailed = false;
+
+    @CreationTimestamp
+    @Column(name = "created_at", updatable = false)
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,5 @@
+package com.yatranow.event;
+
+// Published when a route's locations change, so cached schedule data can be refreshed
+public record RouteUpdatedEvent(Long routeId) {
+}
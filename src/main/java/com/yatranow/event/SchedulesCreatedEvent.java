@@ -0,0 +1,7 @@
+package com.yatranow.event;
+
+import java.util.List;
+
+// Published inside the transaction that inserted the schedules
+public record SchedulesCreatedEvent(List<Long> scheduleIds) {
+}
@@ -0,0 +1,7 @@
+package com.yatranow.event;
+
+import java.util.List;
+
+// Published inside the transaction that deleted the schedules (and their bookings)
+public record SchedulesDeletedEvent(List<Long> scheduleIds) {
+}
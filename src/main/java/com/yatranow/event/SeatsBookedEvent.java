@@ -0,0 +1,7 @@
+package com.yatranow.event;
+
+import java.util.List;
+
+// Published inside the booking transaction, one event per schedule
+public record SeatsBookedEvent(Long scheduleId, Long userId, List<String> seatNumbers) {
+}
@@ -0,0 +1,7 @@
+package com.yatranow.event;
+
+import java.util.List;
+
+// Published when seats are put on hold for checkout
+public record SeatsHeldEvent(Long scheduleId, List<String> seatNumbers) {
+}
@@ -0,0 +1,7 @@
+package com.yatranow.event;
+
+import java.util.List;
+
+// Published when seat holds are released or expire without a booking
+public record SeatsReleasedEvent(Long scheduleId, List<String> seatNumbers) {
+}
@@ -0,0 +1,8 @@
+package com.yatranow.exception;
+
+// Invalid request input that bean validation cannot express, such as cursors and date ranges
+public class BadRequestException extends RuntimeException {
+    public BadRequestException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,8 @@
+package com.yatranow.exception;
+
+// The background job queue has no room; the client may retry later
+public class JobQueueFullException extends RuntimeException {
+    public JobQueueFullException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,8 @@
+package com.yatranow.exception;
+
+// The vehicle is already on another trip at the requested time
+public class ScheduleConflictException extends RuntimeException {
+    public ScheduleConflictException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,8 @@
+package com.yatranow.exception;
+
+// The schedule has no seats left for the requested booking
+public class SeatsUnavailableException extends RuntimeException {
+    public SeatsUnavailableException(String message) {
+        super(message);
+    }
+}
@@ -1,28 +1,109 @@
 package com.yatranow.repository;
 
+import com.yatranow.dto.BookingResponse;
 import com.yatranow.entity.Booking;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
-public interface BookingRepository extends JpaRepository<Booking, Long> {
+public interface BookingRepository extends JpaRepository<Booking, Long>, BookingRepositoryCustom {
 
     List<Booking> findByUserId(Long userId);
 
     List<Booking> findByScheduleId(Long scheduleId);
 
+    List<Booking> findByScheduleIdIn(Collection<Long> scheduleIds);
+
+    @Query("SELECT b.seatNumber FROM Booking b WHERE b.scheduleId = :scheduleId")
+    List<String> findSeatNumbersByScheduleId(@Param("scheduleId") Long scheduleId);
+
     boolean existsByScheduleIdAndSeatNumber(Long scheduleId, String seatNumber);
 
-    @Query("""
-            SELECT b FROM Booking b
+    @Query("SELECT b.seatNumber FROM Booking b WHERE b.scheduleId = :scheduleId AND b.seatNumber IN :seatNumbers")
+    List<String> findBookedSeatNumbers(
+            @Param("scheduleId") Long scheduleId,
+            @Param("seatNumbers") List<String> seatNumbers);
+
+    String BOOKING_RESPONSE_SELECT = """
+            SELECT new com.yatranow.dto.BookingResponse(
+                b.id, s.id, b.seatNumber, b.passengerName, b.passengerAge, b.passengerGender,
+                v.name, v.vehicleNumber, r.fromLocation, r.toLocation,
+                s.scheduleDate, s.departureTime, s.arrivalTime, s.price, b.bookingDate, b.status)
+            FROM Booking b
+            JOIN b.schedule s
+            JOIN s.vehicle v
+            JOIN s.route r
+            """;
+
+    // Bookings on the owner's vehicles, newest trips first; every filter is optional
+    @Query(value = BOOKING_RESPONSE_SELECT + """
+            WHERE v.ownerId = :ownerId
+            AND (:scheduleId IS NULL OR s.id = :scheduleId)
+            AND (:fromDate IS NULL OR s.scheduleDate >= :fromDate)
+            AND (:toDate IS NULL OR s.scheduleDate <= :toDate)
+            ORDER BY s.scheduleDate DESC, s.departureTime DESC, b.id DESC
+            """, countQuery = """
+            SELECT COUNT(b) FROM Booking b
             JOIN b.schedule s
-            WHERE s.vehicleId IN :vehicleIds
+            JOIN s.vehicle v
+            WHERE v.ownerId = :ownerId
+            AND (:scheduleId IS NULL OR s.id = :scheduleId)
+            AND (:fromDate IS NULL OR s.scheduleDate >= :fromDate)
+            AND (:toDate IS NULL OR s.scheduleDate <= :toDate)
+            """)
+    Page<BookingResponse> findOwnerBookings(
+            @Param("ownerId") Long ownerId,
+            @Param("scheduleId") Long scheduleId,
+            @Param("fromDate") LocalDate fromDate,
+            @Param("toDate") LocalDate toDate,
+            Pageable pageable);
+
+    // Keyset page of a user's trips from :today on, soonest first, after the given position
+    @Query(BOOKING_RESPONSE_SELECT + """
+            WHERE b.userId = :userId
+            AND s.scheduleDate >= :today
+            AND (s.scheduleDate > :lastDate
+                 OR (s.scheduleDate = :lastDate AND (s.departureTime > :lastTime
+                     OR (s.departureTime = :lastTime AND b.id > :lastId))))
+            ORDER BY s.scheduleDate, s.departureTime, b.id
+            """)
+    List<BookingResponse> findUpcomingBookingsAfter(
+            @Param("userId") Long userId,
+            @Param("today") LocalDate today,
+            @Param("lastDate") LocalDate lastDate,
+            @Param("lastTime") LocalTime lastTime,
+            @Param("lastId") Long lastId,
+            Limit limit);
+
+    // Keyset page of a user's trips before :today, most recent first, after the given position
+    @Query(BOOKING_RESPONSE_SELECT + """
+            WHERE b.userId = :userId
+            AND s.scheduleDate < :today
+            AND (s.scheduleDate < :lastDate
+                 OR (s.scheduleDate = :lastDate AND (s.departureTime < :lastTime
+                     OR (s.departureTime = :lastTime AND b.id < :lastId))))
+            ORDER BY s.scheduleDate DESC, s.departureTime DESC, b.id DESC
             """)
-    List<Booking> findByVehicleIds(@Param("vehicleIds") List<Long> vehicleIds);
+    List<BookingResponse> findPastBookingsAfter(
+            @Param("userId") Long userId,
+            @Param("today") LocalDate today,
+            @Param("lastDate") LocalDate lastDate,
+            @Param("lastTime") LocalTime lastTime,
+            @Param("lastId") Long lastId,
+            Limit limit);
 
-    void deleteByScheduleIdIn(List<Long> scheduleIds);
+    @Modifying
+    @Query("DELETE FROM Booking b WHERE b.scheduleId IN :scheduleIds")
+    int deleteByScheduleIdIn(@Param("scheduleIds") List<Long> scheduleIds);
 }
@@ -0,0 +1,11 @@
+package com.yatranow.repository;
+
+import com.yatranow.entity.Booking;
+
+import java.util.List;
+
+public interface BookingRepositoryCustom {
+
+    // Inserts all bookings with one JDBC batch and sets their generated ids and booking dates
+    List<Booking> insertAll(List<Booking> bookings);
+}
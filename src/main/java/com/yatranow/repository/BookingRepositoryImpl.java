@@ -0,0 +1,37 @@
+package com.yatranow.repository;
+
+import com.yatranow.entity.Booking;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@RequiredArgsConstructor
+public class BookingRepositoryImpl implements BookingRepositoryCustom {
+
+    private static final String INSERT_SQL = """
+            INSERT INTO bookings (user_id, schedule_id, seat_number, passenger_name, passenger_age,
+                                  passenger_gender, booking_date, status)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?)
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public List<Booking> insertAll(List<Booking> bookings) {
+        LocalDateTime now = LocalDateTime.now();
+        return JdbcBatchInsert.insertAll(jdbcTemplate, INSERT_SQL, bookings, (ps, booking) -> {
+            booking.setBookingDate(now);
+            ps.setLong(1, booking.getUserId());
+            ps.setLong(2, booking.getScheduleId());
+            ps.setString(3, booking.getSeatNumber());
+            ps.setString(4, booking.getPassengerName());
+            ps.setInt(5, booking.getPassengerAge());
+            ps.setString(6, booking.getPassengerGender());
+            ps.setTimestamp(7, Timestamp.valueOf(now));
+            ps.setString(8, booking.getStatus().name());
+        }, Booking::setId);
+    }
+}
@@ -2,6 +2,9 @@ package com.yatranow.repository;
 
 import com.yatranow.entity.Complaint;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -15,5 +18,10 @@ public interface ComplaintRepository extends JpaRepository<Complaint, Long> {
 
     List<Complaint> findByVehicleIdIn(List<Long> vehicleIds);
 
-    void deleteByVehicleIdIn(List<Long> vehicleIds);
+    @Query("SELECT c.complaintImageId FROM Complaint c WHERE c.vehicleId IN :vehicleIds AND c.complaintImageId IS NOT NULL")
+    List<Long> findImageIdsByVehicleIdIn(@Param("vehicleIds") List<Long> vehicleIds);
+
+    @Modifying
+    @Query("DELETE FROM Complaint c WHERE c.vehicleId IN :vehicleIds")
+    int deleteByVehicleIdIn(@Param("vehicleIds") List<Long> vehicleIds);
 }
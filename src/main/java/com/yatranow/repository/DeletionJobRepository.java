@@ -0,0 +1,82 @@
+package com.yatranow.repository;
+
+import com.yatranow.entity.DeletionJob;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+// Leases are timed by the database clock, like scheduler_locks
+@Repository
+public interface DeletionJobRepository extends JpaRepository<DeletionJob, Long> {
+
+    Optional<DeletionJob> findFirstByTargetTypeAndTargetIdAndStatusIn(
+            DeletionJob.TargetType targetType, Long targetId, Collection<DeletionJob.Status> statuses);
+
+    // Jobs nobody is working on: not started yet, or running under a lease that has run out
+    @Query(value = """
+            SELECT id FROM deletion_jobs
+            WHERE status = 'PENDING'
+               OR (status = 'RUNNING' AND (lease_until IS NULL OR lease_until <= NOW(6)))
+            ORDER BY id
+            """, nativeQuery = true)
+    List<Long> findClaimableIds();
+
+    // Returns 0 if another instance holds a live lease on the job or it has finished
+    @Transactional
+    @Modifying
+    @Query(value = """
+            UPDATE deletion_jobs
+            SET status = 'RUNNING',
+                holder = :holder,
+                lease_until = TIMESTAMPADD(MICROSECOND, :leaseMicros, NOW(6)),
+                updated_at = NOW(6)
+            WHERE id = :id
+              AND (status = 'PENDING'
+                   OR (status = 'RUNNING' AND (lease_until IS NULL OR lease_until <= NOW(6))))
+            """, nativeQuery = true)
+    int claim(@Param("id") Long id, @Param("holder") String holder, @Param("leaseMicros") long leaseMicros);
+
+    // Records progress and extends the lease; returns 0 once the job is no longer held by holder
+    @Transactional
+    @Modifying
+    @Query(value = """
+            UPDATE deletion_jobs
+            SET schedules_deleted = :deleted,
+                schedules_total = :total,
+                lease_until = TIMESTAMPADD(MICROSECOND, :leaseMicros, NOW(6)),
+                updated_at = NOW(6)
+            WHERE id = :id AND status = 'RUNNING' AND holder = :holder
+            """, nativeQuery = true)
+    int recordProgress(
+            @Param("id") Long id,
+            @Param("holder") String holder,
+            @Param("deleted") long deleted,
+            @Param("total") long total,
+            @Param("leaseMicros") long leaseMicros);
+
+    @Transactional
+    @Modifying
+    @Query(value = """
+            UPDATE deletion_jobs
+            SET status = :status,
+                error_message = :errorMessage,
+                finished_at = :finishedAt,
+                lease_until = NULL,
+                updated_at = NOW(6)
+            WHERE id = :id AND status = 'RUNNING' AND holder = :holder
+            """, nativeQuery = true)
+    int finish(
+            @Param("id") Long id,
+            @Param("holder") String holder,
+            @Param("status") String status,
+            @Param("errorMessage") String errorMessage,
+            @Param("finishedAt") LocalDateTime finishedAt);
+}
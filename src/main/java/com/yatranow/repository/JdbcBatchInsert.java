@@ -0,0 +1,59 @@
+package com.yatranow.repository;
+
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.function.BiConsumer;
+
+/**
+ * Multi-row INSERT for IDENTITY tables, which Hibernate never batches. Rows
+ * are sent as JDBC batches of BATCH_SIZE on one prepared statement (rewritten
+ * into multi-value INSERTs by the MySQL driver) and the generated ids are
+ * written back in order.
+ */
+final class JdbcBatchInsert {
+
+    static final int BATCH_SIZE = 500;
+
+    private JdbcBatchInsert() {
+    }
+
+    @FunctionalInterface
+    interface RowBinder<T> {
+        void bind(PreparedStatement ps, T row) throws SQLException;
+    }
+
+    static <T> List<T> insertAll(JdbcTemplate jdbcTemplate, String sql, List<T> rows, RowBinder<T> binder,
+            BiConsumer<T, Long> idSetter) {
+        if (rows.isEmpty()) {
+            return rows;
+        }
+
+        return jdbcTemplate.execute((ConnectionCallback<List<T>>) connection -> {
+            try (PreparedStatement ps = connection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+                for (int from = 0; from < rows.size(); from += BATCH_SIZE) {
+                    List<T> chunk = rows.subList(from, Math.min(from + BATCH_SIZE, rows.size()));
+                    for (T row : chunk) {
+                        binder.bind(ps, row);
+                        ps.addBatch();
+                    }
+                    ps.executeBatch();
+
+                    try (ResultSet keys = ps.getGeneratedKeys()) {
+                        for (T row : chunk) {
+                            if (keys.next()) {
+                                idSetter.accept(row, keys.getLong(1));
+                            }
+                        }
+                    }
+                }
+            }
+            return rows;
+        });
+    }
+}
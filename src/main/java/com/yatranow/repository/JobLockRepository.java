@@ -0,0 +1,54 @@
+package com.yatranow.repository;
+
+import com.yatranow.entity.JobLock;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+// All lease times come from the database clock, so instances with skewed clocks still agree
+@Repository
+public interface JobLockRepository extends JpaRepository<JobLock, String> {
+
+    // Takes over an expired lease; returns 0 while someone else holds it
+    @Transactional
+    @Modifying
+    @Query(value = """
+            UPDATE scheduler_locks
+            SET lock_until = TIMESTAMPADD(MICROSECOND, :leaseMicros, NOW(6)),
+                locked_at = NOW(6),
+                locked_by = :lockedBy
+            WHERE name = :name AND lock_until <= NOW(6)
+            """, nativeQuery = true)
+    int acquireExpired(
+            @Param("name") String name,
+            @Param("lockedBy") String lockedBy,
+            @Param("leaseMicros") long leaseMicros);
+
+    // First run of a job ever; returns 0 if another instance created the row first
+    @Transactional
+    @Modifying
+    @Query(value = """
+            INSERT IGNORE INTO scheduler_locks (name, lock_until, locked_at, locked_by)
+            VALUES (:name, TIMESTAMPADD(MICROSECOND, :leaseMicros, NOW(6)), NOW(6), :lockedBy)
+            """, nativeQuery = true)
+    int acquireNew(
+            @Param("name") String name,
+            @Param("lockedBy") String lockedBy,
+            @Param("leaseMicros") long leaseMicros);
+
+    // Ends the lease, but not before lockedAt + minimum so a fast job is not rerun by a late instance
+    @Transactional
+    @Modifying
+    @Query(value = """
+            UPDATE scheduler_locks
+            SET lock_until = GREATEST(NOW(6), TIMESTAMPADD(MICROSECOND, :minimumMicros, locked_at))
+            WHERE name = :name AND locked_by = :lockedBy
+            """, nativeQuery = true)
+    int release(
+            @Param("name") String name,
+            @Param("lockedBy") String lockedBy,
+            @Param("minimumMicros") long minimumMicros);
+}
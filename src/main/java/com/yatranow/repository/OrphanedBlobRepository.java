@@ -0,0 +1,39 @@
+package com.yatranow.repository;
+
+import com.yatranow.entity.OrphanedBlob;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface OrphanedBlobRepository extends JpaRepository<OrphanedBlob, String> {
+
+    // Orphaned again later: the grace period starts over
+    @Transactional
+    @Modifying
+    @Query(value = """
+            INSERT INTO orphaned_blobs (hash, orphaned_at) VALUES (:hash, NOW(6))
+            ON DUPLICATE KEY UPDATE orphaned_at = NOW(6)
+            """, nativeQuery = true)
+    int record(@Param("hash") String hash);
+
+    // Oldest first; the grace period is measured on the database clock like orphaned_at itself
+    @Query(value = """
+            SELECT hash FROM orphaned_blobs
+            WHERE orphaned_at < TIMESTAMPADD(SECOND, -:graceSeconds, NOW(6))
+            ORDER BY orphaned_at
+            LIMIT :limit
+            """, nativeQuery = true)
+    List<String> findHashesOrphanedBefore(@Param("graceSeconds") long graceSeconds, @Param("limit") int limit);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM OrphanedBlob o WHERE o.hash IN :hashes")
+    int deleteByHashIn(@Param("hashes") Collection<String> hashes);
+}
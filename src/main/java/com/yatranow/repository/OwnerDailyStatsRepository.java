@@ -0,0 +1,151 @@
+package com.yatranow.repository;
+
+import com.yatranow.dto.DashboardMetrics;
+import com.yatranow.entity.OwnerDailyStats;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface OwnerDailyStatsRepository extends JpaRepository<OwnerDailyStats, Long> {
+
+    // Every write is an INSERT ... SELECT of deltas, wrapped in a derived table so the
+    // ON DUPLICATE KEY UPDATE clause can refer to them by name instead of the deprecated VALUES()
+    String UPSERT_INTO = """
+            INSERT INTO owner_daily_stats
+                (owner_id, vehicle_id, route_id, stat_date, seats_offered, seats_sold, revenue, cancellations)
+            SELECT * FROM (
+            """;
+
+    String ADD_ON_DUPLICATE = """
+            ) AS delta
+            ON DUPLICATE KEY UPDATE
+                seats_offered = owner_daily_stats.seats_offered + delta.seats_offered,
+                seats_sold = owner_daily_stats.seats_sold + delta.seats_sold,
+                revenue = owner_daily_stats.revenue + delta.revenue,
+                cancellations = owner_daily_stats.cancellations + delta.cancellations
+            """;
+
+    // New schedules add their vehicle's capacity to the seats offered
+    @Modifying
+    @Query(value = UPSERT_INTO + """
+            SELECT v.owner_id, s.vehicle_id, s.route_id, s.schedule_date AS stat_date,
+                   SUM(v.total_seats) AS seats_offered, 0 AS seats_sold, 0 AS revenue, 0 AS cancellations
+            FROM schedules s
+            JOIN vehicles v ON v.id = s.vehicle_id
+            WHERE s.id IN (:scheduleIds)
+            GROUP BY v.owner_id, s.vehicle_id, s.route_id, s.schedule_date
+            """ + ADD_ON_DUPLICATE, nativeQuery = true)
+    int addSchedules(@Param("scheduleIds") Collection<Long> scheduleIds);
+
+    @Modifying
+    @Query(value = UPSERT_INTO + """
+            SELECT v.owner_id, s.vehicle_id, s.route_id, s.schedule_date AS stat_date,
+                   0 AS seats_offered, :seats AS seats_sold, :seats * s.price AS revenue, 0 AS cancellations
+            FROM schedules s
+            JOIN vehicles v ON v.id = s.vehicle_id
+            WHERE s.id = :scheduleId
+            """ + ADD_ON_DUPLICATE, nativeQuery = true)
+    int addSeatsSold(@Param("scheduleId") Long scheduleId, @Param("seats") int seats);
+
+    // Schedules withdrawn before they ran: capacity and sales are taken back, bookings count as cancelled.
+    // Trips already in the past keep their figures.
+    @Modifying
+    @Query(value = UPSERT_INTO + """
+            SELECT v.owner_id, s.vehicle_id, s.route_id, s.schedule_date AS stat_date,
+                   -SUM(v.total_seats) AS seats_offered, -SUM(COALESCE(b.booked, 0)) AS seats_sold,
+                   -SUM(COALESCE(b.booked, 0) * s.price) AS revenue, SUM(COALESCE(b.booked, 0)) AS cancellations
+            FROM schedules s
+            JOIN vehicles v ON v.id = s.vehicle_id
+            LEFT JOIN (SELECT schedule_id, COUNT(*) AS booked FROM bookings
+                       WHERE schedule_id IN (:scheduleIds) GROUP BY schedule_id) b ON b.schedule_id = s.id
+            WHERE s.id IN (:scheduleIds) AND s.schedule_date >= CURDATE()
+            GROUP BY v.owner_id, s.vehicle_id, s.route_id, s.schedule_date
+            """ + ADD_ON_DUPLICATE, nativeQuery = true)
+    int cancelSchedules(@Param("scheduleIds") Collection<Long> scheduleIds);
+
+    // Rebuilds the totals from the schedules and bookings still present; cancellations cannot be recovered.
+    // Overwrites rather than adds, so a row a live booking wrote meanwhile ends up with the recount.
+    @Modifying
+    @Query(value = UPSERT_INTO + """
+            SELECT v.owner_id, s.vehicle_id, s.route_id, s.schedule_date AS stat_date,
+                   SUM(v.total_seats) AS seats_offered, SUM(COALESCE(b.booked, 0)) AS seats_sold,
+                   SUM(COALESCE(b.booked, 0) * s.price) AS revenue, 0 AS cancellations
+            FROM schedules s
+            JOIN vehicles v ON v.id = s.vehicle_id
+            LEFT JOIN (SELECT schedule_id, COUNT(*) AS booked FROM bookings GROUP BY schedule_id) b
+                   ON b.schedule_id = s.id
+            GROUP BY v.owner_id, s.vehicle_id, s.route_id, s.schedule_date
+            ) AS delta
+            ON DUPLICATE KEY UPDATE
+                seats_offered = delta.seats_offered,
+                seats_sold = delta.seats_sold,
+                revenue = delta.revenue
+            """, nativeQuery = true)
+    int backfill();
+
+    @Modifying
+    @Query("DELETE FROM OwnerDailyStats st WHERE st.ownerId = :ownerId")
+    int deleteByOwnerId(@Param("ownerId") Long ownerId);
+
+    @Query("""
+            SELECT new com.yatranow.dto.DashboardMetrics(
+                SUM(st.seatsOffered), SUM(st.seatsSold), SUM(st.revenue), SUM(st.cancellations))
+            FROM OwnerDailyStats st
+            WHERE st.ownerId = :ownerId AND st.statDate BETWEEN :fromDate AND :toDate
+            """)
+    DashboardMetrics findTotals(
+            @Param("ownerId") Long ownerId,
+            @Param("fromDate") LocalDate fromDate,
+            @Param("toDate") LocalDate toDate);
+
+    // Routes deleted since keep their figures, with a null label
+    @Query("""
+            SELECT new com.yatranow.dto.DashboardMetrics(
+                st.routeId, CONCAT(r.fromLocation, ' - ', r.toLocation),
+                SUM(st.seatsOffered), SUM(st.seatsSold), SUM(st.revenue), SUM(st.cancellations))
+            FROM OwnerDailyStats st
+            LEFT JOIN Route r ON r.id = st.routeId
+            WHERE st.ownerId = :ownerId AND st.statDate BETWEEN :fromDate AND :toDate
+            GROUP BY st.routeId, r.fromLocation, r.toLocation
+            ORDER BY SUM(st.revenue) DESC
+            """)
+    List<DashboardMetrics> findByRoute(
+            @Param("ownerId") Long ownerId,
+            @Param("fromDate") LocalDate fromDate,
+            @Param("toDate") LocalDate toDate);
+
+    @Query("""
+            SELECT new com.yatranow.dto.DashboardMetrics(
+                st.vehicleId, v.name,
+                SUM(st.seatsOffered), SUM(st.seatsSold), SUM(st.revenue), SUM(st.cancellations))
+            FROM OwnerDailyStats st
+            LEFT JOIN Vehicle v ON v.id = st.vehicleId
+            WHERE st.ownerId = :ownerId AND st.statDate BETWEEN :fromDate AND :toDate
+            GROUP BY st.vehicleId, v.name
+            ORDER BY SUM(st.revenue) DESC
+            """)
+    List<DashboardMetrics> findByVehicle(
+            @Param("ownerId") Long ownerId,
+            @Param("fromDate") LocalDate fromDate,
+            @Param("toDate") LocalDate toDate);
+
+    @Query("""
+            SELECT new com.yatranow.dto.DashboardMetrics(
+                st.statDate, SUM(st.seatsOffered), SUM(st.seatsSold), SUM(st.revenue), SUM(st.cancellations))
+            FROM OwnerDailyStats st
+            WHERE st.ownerId = :ownerId AND st.statDate BETWEEN :fromDate AND :toDate
+            GROUP BY st.statDate
+            ORDER BY st.statDate
+            """)
+    List<DashboardMetrics> findByDay(
+            @Param("ownerId") Long ownerId,
+            @Param("fromDate") LocalDate fromDate,
+            @Param("toDate") LocalDate toDate);
+}
@@ -1,39 +1,135 @@
 package com.yatranow.repository;
 
+import com.yatranow.dto.SearchResponse;
 import com.yatranow.entity.Schedule;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
-public interface ScheduleRepository extends JpaRepository<Schedule, Long> {
+public interface ScheduleRepository extends JpaRepository<Schedule, Long>, ScheduleRepositoryCustom {
 
         List<Schedule> findByVehicleId(Long vehicleId);
 
+        // SELECT ... FOR SHARE: reads the latest committed rows rather than the transaction's snapshot
+        @Lock(LockModeType.PESSIMISTIC_READ)
+        @Query("SELECT s FROM Schedule s WHERE s.vehicleId = :vehicleId AND s.scheduleDate BETWEEN :fromDate AND :toDate")
+        List<Schedule> lockByVehicleIdAndScheduleDateBetween(@Param("vehicleId") Long vehicleId,
+                        @Param("fromDate") LocalDate fromDate, @Param("toDate") LocalDate toDate);
+
+        @Query("SELECT s.vehicleId FROM Schedule s WHERE s.id = :id")
+        Optional<Long> findVehicleIdById(@Param("id") Long id);
+
         List<Schedule> findByRouteId(Long routeId);
 
         List<Schedule> findByScheduleDate(LocalDate scheduleDate);
 
-        @Query("""
-                        SELECT s FROM Schedule s
+        String SEARCH_RESPONSE_SELECT = """
+                        SELECT new com.yatranow.dto.SearchResponse(
+                            s.id, v.id, v.name, v.vehicleNumber, v.vehicleType, v.busType,
+                            r.fromLocation, r.toLocation, s.scheduleDate, s.departureTime, s.arrivalTime,
+                            s.price, s.availableSeats, o.id, o.ownerName, o.agencyName)
+                        FROM Schedule s
+                        JOIN s.route r
+                        JOIN s.vehicle v
+                        JOIN v.owner o
+                        """;
+
+        @Query(value = SEARCH_RESPONSE_SELECT + """
+                        WHERE LOWER(r.fromLocation) = LOWER(:fromLocation)
+                        AND LOWER(r.toLocation) = LOWER(:toLocation)
+                        AND s.scheduleDate = :scheduleDate
+                        AND s.availableSeats > 0
+                        """, countQuery = """
+                        SELECT COUNT(s) FROM Schedule s
                         JOIN s.route r
                         WHERE LOWER(r.fromLocation) = LOWER(:fromLocation)
                         AND LOWER(r.toLocation) = LOWER(:toLocation)
                         AND s.scheduleDate = :scheduleDate
                         AND s.availableSeats > 0
                         """)
-        Page<Schedule> searchSchedules(
+        Page<SearchResponse> searchSchedules(
                         @Param("fromLocation") String fromLocation,
                         @Param("toLocation") String toLocation,
                         @Param("scheduleDate") LocalDate scheduleDate,
                         Pageable pageable);
 
+        // Keyset variants of searchSchedules: no count query, cost independent of depth
+        @Query(SEARCH_RESPONSE_SELECT + """
+                        WHERE LOWER(r.fromLocation) = LOWER(:fromLocation)
+                        AND LOWER(r.toLocation) = LOWER(:toLocation)
+                        AND s.scheduleDate = :scheduleDate
+                        AND s.availableSeats > 0
+                        AND (s.price > :lastPrice OR (s.price = :lastPrice AND s.id > :lastId))
+                        ORDER BY s.price, s.id
+                        """)
+        List<SearchResponse> searchSchedulesAfterPrice(
+                        @Param("fromLocation") String fromLocation,
+                        @Param("toLocation") String toLocation,
+                        @Param("scheduleDate") LocalDate scheduleDate,
+                        @Param("lastPrice") Double lastPrice,
+                        @Param("lastId") Long lastId,
+                        Limit limit);
+
+        @Query(SEARCH_RESPONSE_SELECT + """
+                        WHERE LOWER(r.fromLocation) = LOWER(:fromLocation)
+                        AND LOWER(r.toLocation) = LOWER(:toLocation)
+                        AND s.scheduleDate = :scheduleDate
+                        AND s.availableSeats > 0
+                        AND (s.departureTime > :lastTime OR (s.departureTime = :lastTime AND s.id > :lastId))
+                        ORDER BY s.departureTime, s.id
+                        """)
+        List<SearchResponse> searchSchedulesAfterDepartureTime(
+                        @Param("fromLocation") String fromLocation,
+                        @Param("toLocation") String toLocation,
+                        @Param("scheduleDate") LocalDate scheduleDate,
+                        @Param("lastTime") LocalTime lastTime,
+                        @Param("lastId") Long lastId,
+                        Limit limit);
+
+        // Schedules for today or future, joined with vehicle, route and owner in one query
+        @Query(SEARCH_RESPONSE_SELECT + "WHERE s.scheduleDate >= :date")
+        List<SearchResponse> findSearchResponsesFrom(@Param("date") LocalDate date);
+
+        // Forward-only cursor over the same rows; MySQL streams them when the fetch size is Integer.MIN_VALUE.
+        // Must be consumed inside a transaction and closed.
+        @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + Integer.MIN_VALUE))
+        @Query(SEARCH_RESPONSE_SELECT + "WHERE s.scheduleDate >= :date ORDER BY s.id")
+        Stream<SearchResponse> streamSearchResponsesFrom(@Param("date") LocalDate date);
+
+        @Query(SEARCH_RESPONSE_SELECT + "WHERE s.id IN :ids")
+        List<SearchResponse> findSearchResponsesByIds(@Param("ids") Collection<Long> ids);
+
+        @Query(SEARCH_RESPONSE_SELECT + "WHERE r.id = :routeId AND s.scheduleDate >= :date")
+        List<SearchResponse> findSearchResponsesByRouteIdFrom(
+                        @Param("routeId") Long routeId,
+                        @Param("date") LocalDate date);
+
+        // Returns 0 when fewer than count seats are left, leaving the row untouched
+        @Modifying
+        @Query("""
+                        UPDATE Schedule s SET s.availableSeats = s.availableSeats - :count
+                        WHERE s.id = :id AND s.availableSeats >= :count
+                        """)
+        int decrementAvailableSeats(@Param("id") Long id, @Param("count") int count);
+
         @Query("SELECT s FROM Schedule s WHERE s.vehicleId IN :vehicleIds")
         List<Schedule> findByVehicleIdIn(@Param("vehicleIds") List<Long> vehicleIds);
 
@@ -43,8 +139,19 @@ public interface ScheduleRepository extends JpaRepository<Schedule, Long> {
         // Find past schedules for cleanup
         List<Schedule> findByScheduleDateBefore(LocalDate date);
 
-        // Delete past schedules
-        void deleteByScheduleDateBefore(LocalDate date);
+        // Id chunks for the bulk deletes in ScheduleBulkDeleter; deleted rows drop out of the next chunk
+        @Query("SELECT s.id FROM Schedule s WHERE s.scheduleDate < :date ORDER BY s.id")
+        List<Long> findIdsByScheduleDateBefore(@Param("date") LocalDate date, Limit limit);
+
+        @Query("SELECT s.id FROM Schedule s WHERE s.routeId = :routeId ORDER BY s.id")
+        List<Long> findIdsByRouteId(@Param("routeId") Long routeId, Limit limit);
+
+        @Query("SELECT s.id FROM Schedule s WHERE s.vehicleId IN :vehicleIds ORDER BY s.id")
+        List<Long> findIdsByVehicleIdIn(@Param("vehicleIds") List<Long> vehicleIds, Limit limit);
+
+        long countByVehicleIdIn(List<Long> vehicleIds);
 
-        void deleteByVehicleIdIn(List<Long> vehicleIds);
+        @Modifying
+        @Query("DELETE FROM Schedule s WHERE s.id IN :ids")
+        int deleteByIdIn(@Param("ids") List<Long> ids);
 }
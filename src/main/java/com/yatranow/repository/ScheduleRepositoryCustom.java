@@ -0,0 +1,11 @@
+package com.yatranow.repository;
+
+import com.yatranow.entity.Schedule;
+
+import java.util.List;
+
+public interface ScheduleRepositoryCustom {
+
+    // Inserts all schedules with JDBC batches and sets their generated ids
+    List<Schedule> insertAll(List<Schedule> schedules);
+}
@@ -0,0 +1,34 @@
+package com.yatranow.repository;
+
+import com.yatranow.entity.Schedule;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Date;
+import java.sql.Time;
+import java.util.List;
+
+@RequiredArgsConstructor
+public class ScheduleRepositoryImpl implements ScheduleRepositoryCustom {
+
+    private static final String INSERT_SQL = """
+            INSERT INTO schedules (vehicle_id, route_id, departure_time, arrival_time, price,
+                                   available_seats, schedule_date)
+            VALUES (?, ?, ?, ?, ?, ?, ?)
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public List<Schedule> insertAll(List<Schedule> schedules) {
+        return JdbcBatchInsert.insertAll(jdbcTemplate, INSERT_SQL, schedules, (ps, schedule) -> {
+            ps.setLong(1, schedule.getVehicleId());
+            ps.setLong(2, schedule.getRouteId());
+            ps.setTime(3, Time.valueOf(schedule.getDepartureTime()));
+            ps.setTime(4, Time.valueOf(schedule.getArrivalTime()));
+            ps.setDouble(5, schedule.getPrice());
+            ps.setInt(6, schedule.getAvailableSeats());
+            ps.setDate(7, Date.valueOf(schedule.getScheduleDate()));
+        }, Schedule::setId);
+    }
+}
@@ -2,6 +2,9 @@ package com.yatranow.repository;
 
 import com.yatranow.entity.Seat;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -16,5 +19,7 @@ public interface SeatRepository extends JpaRepository<Seat, Long> {
 
     boolean existsByVehicleIdAndSeatNumber(Long vehicleId, String seatNumber);
 
-    void deleteByVehicleIdIn(List<Long> vehicleIds);
+    @Modifying
+    @Query("DELETE FROM Seat s WHERE s.vehicleId IN :vehicleIds")
+    int deleteByVehicleIdIn(@Param("vehicleIds") List<Long> vehicleIds);
 }
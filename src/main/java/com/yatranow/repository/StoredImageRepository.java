@@ -0,0 +1,59 @@
+package com.yatranow.repository;
+
+import com.yatranow.entity.StoredImage;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface StoredImageRepository extends JpaRepository<StoredImage, Long> {
+
+    List<StoredImage> findByIdIn(Collection<Long> ids);
+
+    // True while any image still points at the blob, as original or as a rendition
+    @Query("""
+            SELECT COUNT(i) > 0 FROM StoredImage i
+            WHERE i.contentHash = :hash OR i.thumbnailHash = :hash OR i.cardHash = :hash OR i.fullHash = :hash
+            """)
+    boolean isReferenced(@Param("hash") String hash);
+
+    // Another upload of the same bytes whose renditions can be reused
+    Optional<StoredImage> findFirstByContentHashAndFullHashIsNotNull(String contentHash);
+
+    @Query("""
+            SELECT i.id FROM StoredImage i
+            WHERE i.fullHash IS NULL AND i.contentHash IS NOT NULL
+            AND (i.renditionFailed IS NULL OR i.renditionFailed = false)
+            ORDER BY i.id
+            """)
+    List<Long> findIdsWithoutRenditions();
+
+    @Transactional
+    @Modifying
+    @Query("""
+            UPDATE StoredImage i
+            SET i.thumbnailHash = :thumbnailHash, i.cardHash = :cardHash, i.fullHash = :fullHash
+            WHERE i.id = :id
+            """)
+    int updateRenditions(
+            @Param("id") Long id,
+            @Param("thumbnailHash") String thumbnailHash,
+            @Param("cardHash") String cardHash,
+            @Param("fullHash") String fullHash);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE StoredImage i SET i.renditionFailed = true WHERE i.id = :id")
+    int markRenditionFailed(@Param("id") Long id);
+
+    @Modifying
+    @Query("DELETE FROM StoredImage i WHERE i.id IN :ids")
+    void deleteByIdIn(@Param("ids") Collection<Long> ids);
+}
@@ -1,10 +1,16 @@
 package com.yatranow.repository;
 
 import com.yatranow.entity.Vehicle;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface VehicleRepository extends JpaRepository<Vehicle, Long> {
@@ -15,5 +21,12 @@ public interface VehicleRepository extends JpaRepository<Vehicle, Long> {
 
     boolean existsByVehicleNumber(String vehicleNumber);
 
-    void deleteByOwnerId(Long ownerId);
+    // SELECT ... FOR UPDATE: held until the calling transaction ends
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT v FROM Vehicle v WHERE v.id = :id")
+    Optional<Vehicle> lockById(@Param("id") Long id);
+
+    @Modifying
+    @Query("DELETE FROM Vehicle v WHERE v.ownerId = :ownerId")
+    int deleteByOwnerId(@Param("ownerId") Long ownerId);
 }
@@ -9,8 +9,12 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
 
 @Service
 @RequiredArgsConstructor
@@ -23,6 +27,10 @@ public class AdminService {
     private final BookingRepository bookingRepository;
     private final ComplaintRepository complaintRepository;
     private final SeatRepository seatRepository;
+    private final ImageService imageService;
+    private final OwnerStatsService ownerStatsService;
+    private final ScheduleBulkDeleter scheduleBulkDeleter;
+    private final TransactionTemplate transactionTemplate;
 
     public Page<User> getAllUsers(Pageable pageable) {
         return userRepository.findAll(pageable);
@@ -62,40 +70,58 @@ public class AdminService {
         return userRepository.save(user);
     }
 
-    @Transactional
-    public void deleteOwner(Long ownerId) {
+    /**
+     * Deletes an owner and everything hanging off it. Not transactional:
+     * schedules go in committed chunks first (progress gets the running total
+     * and the estimated total), then the rest in one short transaction. Safe to
+     * run again after an interruption.
+     */
+    public void deleteOwner(Long ownerId, BiConsumer<Long, Long> progress) {
         if (!ownerRepository.existsById(ownerId)) {
             throw new ResourceNotFoundException("Owner not found with ID: " + ownerId);
         }
 
-        // 1. Fetch all vehicles for this owner
-        List<com.yatranow.entity.Vehicle> vehicles = vehicleRepository.findByOwnerId(ownerId);
-        List<Long> vehicleIds = vehicles.stream().map(com.yatranow.entity.Vehicle::getId).toList();
+        // 1. Fetch the ids of all vehicles for this owner
+        List<Long> vehicleIds = vehicleRepository.findByOwnerId(ownerId).stream()
+                .map(com.yatranow.entity.Vehicle::getId)
+                .toList();
 
+        // 2. Delete Schedules and their Bookings in chunks; the owner's figures are dropped below anyway
         if (!vehicleIds.isEmpty()) {
-            // 2. Fetch all schedules for these vehicles
-            List<com.yatranow.entity.Schedule> schedules = scheduleRepository.findByVehicleIdIn(vehicleIds);
-            List<Long> scheduleIds = schedules.stream().map(com.yatranow.entity.Schedule::getId).toList();
+            long total = scheduleRepository.countByVehicleIdIn(vehicleIds);
+            AtomicLong deleted = new AtomicLong();
+            progress.accept(0L, total);
+            scheduleBulkDeleter.deleteAll(limit -> scheduleRepository.findIdsByVehicleIdIn(vehicleIds, limit), false,
+                    chunk -> progress.accept(deleted.addAndGet(chunk), total));
+        }
 
-            // 3. Delete Bookings (linked to schedules)
-            if (!scheduleIds.isEmpty()) {
-                bookingRepository.deleteByScheduleIdIn(scheduleIds);
-            }
+        transactionTemplate.executeWithoutResult(status -> deleteOwnerRecords(ownerId, vehicleIds));
+    }
 
-            // 4. Delete Schedules (linked to vehicles)
-            scheduleRepository.deleteByVehicleIdIn(vehicleIds);
+    private void deleteOwnerRecords(Long ownerId, List<Long> vehicleIds) {
+        Owner owner = ownerRepository.findById(ownerId)
+                .orElseThrow(() -> new ResourceNotFoundException("Owner not found with ID: " + ownerId));
+        List<Long> imageIds = new ArrayList<>();
 
-            // 5. Delete Complaints (linked to vehicles)
+        if (!vehicleIds.isEmpty()) {
+            // 3. Delete Complaints (linked to vehicles), remembering their images
+            imageIds.addAll(complaintRepository.findImageIdsByVehicleIdIn(vehicleIds));
             complaintRepository.deleteByVehicleIdIn(vehicleIds);
 
-            // 6. Delete Seats (linked to vehicles)
+            // 4. Delete Seat overrides (linked to vehicles)
             seatRepository.deleteByVehicleIdIn(vehicleIds);
 
-            // 7. Delete Vehicles
+            // 5. Delete Vehicles
             vehicleRepository.deleteByOwnerId(ownerId);
         }
 
-        // 8. Finally delete the owner
+        // 6. Finally delete the owner, its dashboard figures and any images it referenced
+        ownerStatsService.deleteOwnerStats(ownerId);
         ownerRepository.deleteById(ownerId);
+
+        if (owner.getAgencyImageId() != null) {
+            imageIds.add(owner.getAgencyImageId());
+        }
+        imageService.deleteImages(imageIds);
     }
 }
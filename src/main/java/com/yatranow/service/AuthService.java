@@ -57,12 +57,12 @@ public class AuthService {
         }
 
         // Validate and process agency image
-        byte[] agencyImageBytes = imageService.processImageOptional(request.getAgencyImage());
+        Long agencyImageId = imageService.storeImageOptional(request.getAgencyImage());
 
         Owner owner = new Owner();
         owner.setOwnerName(request.getOwnerName());
         owner.setAgencyName(request.getAgencyName());
-        owner.setAgencyImage(agencyImageBytes);
+        owner.setAgencyImageId(agencyImageId);
         owner.setEmail(request.getEmail());
         owner.setPassword(passwordEncoder.encode(request.getPassword()));
         owner.setMobile(request.getMobile());
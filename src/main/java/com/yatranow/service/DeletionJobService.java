@@ -0,0 +1,183 @@
+package com.yatranow.service;
+
+import com.yatranow.entity.DeletionJob;
+import com.yatranow.exception.JobQueueFullException;
+import com.yatranow.exception.ResourceNotFoundException;
+import com.yatranow.repository.DeletionJobRepository;
+import com.yatranow.repository.OwnerRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs heavy admin deletions in the background. Jobs are persisted before
+ * they are queued on a small bounded pool, and record their progress after
+ * each committed chunk. An instance claims a job before working on it and
+ * extends its lease with every chunk, so a job runs on one instance at a
+ * time. The deletions themselves are idempotent, so jobs left PENDING, or
+ * RUNNING under an expired lease by an instance that went away, are simply
+ * claimed again by whichever instance finds them first.
+ */
+@Service
+@Slf4j
+public class DeletionJobService {
+
+    private static final List<DeletionJob.Status> ACTIVE = List.of(DeletionJob.Status.PENDING,
+            DeletionJob.Status.RUNNING);
+
+    private final DeletionJobRepository jobRepository;
+    private final OwnerRepository ownerRepository;
+    private final AdminService adminService;
+    private final String instanceId;
+    private final long leaseMicros;
+    private final ThreadPoolExecutor executor;
+    // Jobs queued or running here, so a resume pass does not queue them twice
+    private final Set<Long> queued = ConcurrentHashMap.newKeySet();
+
+    public DeletionJobService(DeletionJobRepository jobRepository, OwnerRepository ownerRepository,
+            AdminService adminService, JobLockService jobLockService,
+            @Value("${yatranow.deletion-jobs.threads:1}") int threads,
+            @Value("${yatranow.deletion-jobs.queue-capacity:50}") int queueCapacity,
+            @Value("${yatranow.deletion-jobs.lease:PT5M}") Duration lease) {
+        this.jobRepository = jobRepository;
+        this.ownerRepository = ownerRepository;
+        this.adminService = adminService;
+        this.instanceId = jobLockService.getInstanceId();
+        this.leaseMicros = lease.toMillis() * 1000;
+
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+                    Thread thread = new Thread(runnable, "deletion-job-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    // Returns the already running job if the owner is being deleted
+    public DeletionJob submitOwnerDeletion(Long ownerId) {
+        var existing = jobRepository.findFirstByTargetTypeAndTargetIdAndStatusIn(
+                DeletionJob.TargetType.OWNER, ownerId, ACTIVE);
+        if (existing.isPresent()) {
+            return existing.get();
+        }
+        if (!ownerRepository.existsById(ownerId)) {
+            throw new ResourceNotFoundException("Owner not found with ID: " + ownerId);
+        }
+
+        DeletionJob job = new DeletionJob();
+        job.setTargetType(DeletionJob.TargetType.OWNER);
+        job.setTargetId(ownerId);
+        job = jobRepository.save(job);
+
+        try {
+            enqueue(job.getId());
+        } catch (RejectedExecutionException e) {
+            jobRepository.delete(job);
+            throw new JobQueueFullException("Too many deletion jobs are queued, try again later");
+        }
+        return job;
+    }
+
+    public DeletionJob getJob(Long jobId) {
+        return jobRepository.findById(jobId)
+                .orElseThrow(() -> new ResourceNotFoundException("Deletion job not found with ID: " + jobId));
+    }
+
+    // On startup, then periodically for jobs whose instance stopped renewing the lease
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(initialDelayString = "${yatranow.deletion-jobs.resume-interval-ms:60000}",
+            fixedDelayString = "${yatranow.deletion-jobs.resume-interval-ms:60000}")
+    public void resumeUnfinishedJobs() {
+        for (Long jobId : jobRepository.findClaimableIds()) {
+            if (queued.contains(jobId)) {
+                continue;
+            }
+            log.info("Resuming deletion job {}", jobId);
+            try {
+                enqueue(jobId);
+            } catch (RejectedExecutionException e) {
+                log.warn("Deletion job {} not resumed, queue is full", jobId);
+                return;
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private void enqueue(Long jobId) {
+        if (!queued.add(jobId)) {
+            return;
+        }
+        try {
+            executor.execute(() -> {
+                try {
+                    run(jobId);
+                } finally {
+                    queued.remove(jobId);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            queued.remove(jobId);
+            throw e;
+        }
+    }
+
+    private void run(Long jobId) {
+        if (jobRepository.claim(jobId, instanceId, leaseMicros) == 0) {
+            log.debug("Deletion job {} is finished or held by another instance, skipping", jobId);
+            return;
+        }
+        DeletionJob job = getJob(jobId);
+
+        // A resumed job continues counting from what earlier runs already deleted
+        long alreadyDeleted = job.getSchedulesDeleted();
+        try {
+            if (ownerRepository.existsById(job.getTargetId())) {
+                adminService.deleteOwner(job.getTargetId(), (deleted, total) -> {
+                    if (jobRepository.recordProgress(jobId, instanceId, alreadyDeleted + deleted,
+                            alreadyDeleted + total, leaseMicros) == 0) {
+                        throw new LeaseLostException();
+                    }
+                });
+            }
+            finish(jobId, DeletionJob.Status.COMPLETED, null);
+        } catch (LeaseLostException e) {
+            log.warn("Deletion job {} was taken over by another instance, stopping", jobId);
+        } catch (Exception e) {
+            log.error("Deletion job {} failed: {}", jobId, e.getMessage(), e);
+            finish(jobId, DeletionJob.Status.FAILED, e.getMessage());
+        }
+    }
+
+    private void finish(Long jobId, DeletionJob.Status status, String errorMessage) {
+        String message = errorMessage != null && errorMessage.length() > 500
+                ? errorMessage.substring(0, 500)
+                : errorMessage;
+        if (jobRepository.finish(jobId, instanceId, status.name(), message, LocalDateTime.now()) == 0) {
+            log.warn("Deletion job {} was taken over by another instance before it finished", jobId);
+        }
+    }
+
+    // Thrown from the progress callback to stop a job whose lease went to another instance
+    private static final class LeaseLostException extends RuntimeException {
+    }
+}
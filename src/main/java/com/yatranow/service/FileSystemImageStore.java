@@ -0,0 +1,134 @@
+package com.yatranow.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.*;
+import java.nio.file.attribute.FileTime;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.UUID;
+import java.util.regex.Pattern;
+
+/**
+ * Keeps images as files under {dir}/ab/cd/abcd..., named by their SHA-256.
+ * Uploads are written to a temporary file while being hashed and then moved
+ * into place, so a blob file is always complete; if the hash is already
+ * present the temporary file is simply dropped and the existing file's
+ * modification time refreshed, which is what deleteIfUnchangedSince checks.
+ */
+@Component
+@Slf4j
+public class FileSystemImageStore implements ImageStore {
+
+    private static final Pattern HASH = Pattern.compile("[0-9a-f]{64}");
+    private static final int BUFFER_SIZE = 8192;
+
+    private final Path root;
+    private final Path tmp;
+
+    public FileSystemImageStore(@Value("${yatranow.images.dir:images}") String directory) throws IOException {
+        this.root = Path.of(directory).toAbsolutePath();
+        this.tmp = root.resolve("tmp");
+        Files.createDirectories(tmp);
+    }
+
+    @Override
+    public Blob put(InputStream content) throws IOException {
+        MessageDigest digest = sha256();
+        Path temp = Files.createTempFile(tmp, "upload-", ".part");
+        try {
+            long size = 0;
+            try (OutputStream out = new DigestOutputStream(Files.newOutputStream(temp), digest)) {
+                byte[] buffer = new byte[BUFFER_SIZE];
+                int read;
+                while ((read = content.read(buffer)) != -1) {
+                    out.write(buffer, 0, read);
+                    size += read;
+                }
+            }
+
+            String hash = HexFormat.of().formatHex(digest.digest());
+            Path target = pathOf(hash);
+            if (!touch(target)) {
+                Files.createDirectories(target.getParent());
+                try {
+                    Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+                } catch (FileAlreadyExistsException e) {
+                    // Same image stored concurrently
+                }
+            }
+            return new Blob(hash, size);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    @Override
+    public Resource get(String hash) {
+        if (hash == null || !HASH.matcher(hash).matches()) {
+            return null;
+        }
+        Path path = pathOf(hash);
+        return Files.isRegularFile(path) ? new FileSystemResource(path) : null;
+    }
+
+    /**
+     * The blob is first moved aside and its modification time checked there.
+     * A put of the same bytes either refreshed the file before the move, so
+     * the check sees it and the file goes back, or finds it gone and moves
+     * its own copy into place.
+     */
+    @Override
+    public boolean deleteIfUnchangedSince(String hash, Instant cutoff) throws IOException {
+        if (hash == null || !HASH.matcher(hash).matches()) {
+            return false;
+        }
+        Path path = pathOf(hash);
+        Path aside = tmp.resolve(hash + "-" + UUID.randomUUID() + ".deleting");
+        try {
+            Files.move(path, aside, StandardCopyOption.ATOMIC_MOVE);
+        } catch (NoSuchFileException e) {
+            return false;
+        }
+
+        if (Files.getLastModifiedTime(aside).toInstant().isAfter(cutoff)) {
+            // Same bytes either way if a put has written the hash again meanwhile
+            Files.move(aside, path, StandardCopyOption.ATOMIC_MOVE);
+            return false;
+        }
+        Files.delete(aside);
+        return true;
+    }
+
+    // Refreshes the modification time of an existing blob; false if there is none
+    private static boolean touch(Path path) throws IOException {
+        try {
+            Files.setLastModifiedTime(path, FileTime.from(Instant.now()));
+            return true;
+        } catch (NoSuchFileException e) {
+            return false;
+        }
+    }
+
+    private Path pathOf(String hash) {
+        return root.resolve(hash.substring(0, 2)).resolve(hash.substring(2, 4)).resolve(hash);
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
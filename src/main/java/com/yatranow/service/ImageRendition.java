@@ -0,0 +1,39 @@
+package com.yatranow.service;
+
+import com.yatranow.exception.BadRequestException;
+
+import java.util.Locale;
+
+/**
+ * Fixed sizes images are served in. Each is the original scaled down to fit
+ * within maxEdge pixels on its longer side; smaller images keep their size.
+ */
+public enum ImageRendition {
+
+    THUMBNAIL(160),
+    CARD(480),
+    FULL(1600);
+
+    private final int maxEdge;
+
+    ImageRendition(int maxEdge) {
+        this.maxEdge = maxEdge;
+    }
+
+    public int getMaxEdge() {
+        return maxEdge;
+    }
+
+    // Parses the size request parameter; "original" and null mean the uploaded bytes
+    public static ImageRendition fromParam(String size) {
+        if (size == null || size.isBlank() || size.equalsIgnoreCase("original")) {
+            return null;
+        }
+        try {
+            return valueOf(size.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("Invalid image size: " + size
+                    + ". Use thumbnail, card, full or original");
+        }
+    }
+}
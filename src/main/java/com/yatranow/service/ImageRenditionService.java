@@ -0,0 +1,247 @@
+package com.yatranow.service;
+
+import com.yatranow.entity.StoredImage;
+import com.yatranow.repository.StoredImageRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Produces the fixed ImageRendition sizes of uploaded images on a small
+ * bounded pool, so uploads never wait for decoding and resizing. Renditions
+ * are re-encoded in the original's format (PNG keeps transparency) and go
+ * into the ImageStore like any other blob. Until they exist, and for images
+ * the queue had no room for, the original is served; images without
+ * renditions are picked up again on the next startup. Images that cannot be
+ * decoded are marked as failed and keep being served as uploaded.
+ */
+@Service
+@Slf4j
+public class ImageRenditionService {
+
+    // Larger images are not decoded at all; 40 MP is already about 160 MB of pixels
+    private static final long MAX_PIXELS = 40_000_000L;
+    private static final float JPEG_QUALITY = 0.85f;
+
+    private final StoredImageRepository storedImageRepository;
+    private final ImageStore imageStore;
+    private final ThreadPoolExecutor executor;
+
+    public ImageRenditionService(StoredImageRepository storedImageRepository, ImageStore imageStore,
+            @Value("${yatranow.image-renditions.threads:2}") int threads,
+            @Value("${yatranow.image-renditions.queue-capacity:100}") int queueCapacity) {
+        this.storedImageRepository = storedImageRepository;
+        this.imageStore = imageStore;
+
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+                    Thread thread = new Thread(runnable, "image-rendition-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    thread.setPriority(Thread.MIN_PRIORITY);
+                    return thread;
+                });
+    }
+
+    // Queues the image once the uploading transaction has committed
+    public void submitAfterCommit(Long imageId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            submit(imageId);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                submit(imageId);
+            }
+        });
+    }
+
+    // Catches up on images uploaded before renditions existed or dropped from a full queue
+    @EventListener(ApplicationReadyEvent.class)
+    public void renderMissing() {
+        List<Long> imageIds = storedImageRepository.findIdsWithoutRenditions();
+        if (imageIds.isEmpty()) {
+            return;
+        }
+        log.info("Rendering {} images without renditions", imageIds.size());
+        try {
+            executor.execute(() -> imageIds.forEach(this::render));
+        } catch (RejectedExecutionException e) {
+            log.warn("Rendition backfill not started, queue is full");
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private void submit(Long imageId) {
+        try {
+            executor.execute(() -> render(imageId));
+        } catch (RejectedExecutionException e) {
+            log.warn("Rendition queue is full, image {} is served as uploaded for now", imageId);
+        }
+    }
+
+    private void render(Long imageId) {
+        StoredImage image = storedImageRepository.findById(imageId).orElse(null);
+        if (image == null || image.getContentHash() == null || image.getFullHash() != null
+                || Boolean.TRUE.equals(image.getRenditionFailed())) {
+            return;
+        }
+
+        try {
+            // Identical bytes were uploaded before: their renditions are identical too
+            var existing = storedImageRepository.findFirstByContentHashAndFullHashIsNotNull(image.getContentHash());
+            if (existing.isPresent()) {
+                StoredImage other = existing.get();
+                storedImageRepository.updateRenditions(imageId, other.getThumbnailHash(), other.getCardHash(),
+                        other.getFullHash());
+                return;
+            }
+
+            Resource original = imageStore.get(image.getContentHash());
+            if (original == null) {
+                log.warn("Image {} has no stored bytes, skipping renditions", imageId);
+                return;
+            }
+            BufferedImage decoded;
+            try {
+                decoded = decode(original);
+            } catch (IOException | RuntimeException e) {
+                // ImageIO reports some corrupt files with unchecked exceptions
+                decoded = null;
+                log.warn("Image {} could not be decoded: {}", imageId, e.getMessage());
+            }
+            if (decoded == null) {
+                // Unsupported, corrupt or too large: decoding again on every startup would not help
+                log.warn("Image {} is served without renditions", imageId);
+                storedImageRepository.markRenditionFailed(imageId);
+                return;
+            }
+
+            boolean png = "image/png".equals(image.getContentType());
+            Map<ImageRendition, String> hashes = new EnumMap<>(ImageRendition.class);
+            for (ImageRendition rendition : ImageRendition.values()) {
+                BufferedImage scaled = scale(decoded, rendition.getMaxEdge(), png);
+                hashes.put(rendition, imageStore.put(new ByteArrayInputStream(encode(scaled, png))).hash());
+            }
+            storedImageRepository.updateRenditions(imageId, hashes.get(ImageRendition.THUMBNAIL),
+                    hashes.get(ImageRendition.CARD), hashes.get(ImageRendition.FULL));
+        } catch (Exception e) {
+            log.error("Failed to render image {}: {}", imageId, e.getMessage(), e);
+        }
+    }
+
+    private static BufferedImage decode(Resource resource) throws IOException {
+        try (InputStream in = resource.getInputStream();
+                ImageInputStream input = ImageIO.createImageInputStream(in)) {
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(input);
+            if (!readers.hasNext()) {
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                // Checked from the header, before any pixels are allocated
+                long pixels = (long) reader.getWidth(0) * reader.getHeight(0);
+                if (pixels > MAX_PIXELS) {
+                    throw new IOException("Image is too large to resize: " + pixels + " pixels");
+                }
+                return reader.read(0);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    // Halves repeatedly, then one bilinear step to the target: close to area averaging at a fraction of the cost
+    private static BufferedImage scale(BufferedImage source, int maxEdge, boolean keepAlpha) {
+        int type = keepAlpha ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB;
+        double factor = Math.min(1.0, (double) maxEdge / Math.max(source.getWidth(), source.getHeight()));
+        int targetWidth = Math.max(1, (int) Math.round(source.getWidth() * factor));
+        int targetHeight = Math.max(1, (int) Math.round(source.getHeight() * factor));
+
+        BufferedImage current = source;
+        int width = source.getWidth();
+        int height = source.getHeight();
+        do {
+            width = Math.max(targetWidth, width / 2);
+            height = Math.max(targetHeight, height / 2);
+            if (width < targetWidth * 2 || height < targetHeight * 2) {
+                width = targetWidth;
+                height = targetHeight;
+            }
+
+            BufferedImage next = new BufferedImage(width, height, type);
+            Graphics2D g = next.createGraphics();
+            try {
+                if (!keepAlpha) {
+                    // JPEG has no alpha; transparent pixels become white instead of black
+                    g.setColor(Color.WHITE);
+                    g.fillRect(0, 0, width, height);
+                }
+                g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+                g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+                g.drawImage(current, 0, 0, width, height, null);
+            } finally {
+                g.dispose();
+            }
+            current = next;
+        } while (width != targetWidth || height != targetHeight);
+        return current;
+    }
+
+    private static byte[] encode(BufferedImage image, boolean png) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        if (png) {
+            ImageIO.write(image, "png", out);
+            return out.toByteArray();
+        }
+
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        try (ImageOutputStream output = ImageIO.createImageOutputStream(out)) {
+            writer.setOutput(output);
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(JPEG_QUALITY);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+        return out.toByteArray();
+    }
+}
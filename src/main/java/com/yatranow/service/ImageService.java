@@ -1,14 +1,28 @@
 package com.yatranow.service;
 
+import com.yatranow.entity.StoredImage;
 import com.yatranow.exception.ImageProcessingException;
+import com.yatranow.repository.OrphanedBlobRepository;
+import com.yatranow.repository.StoredImageRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.io.Resource;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.BufferedInputStream;
+import java.io.FilterInputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Stream;
 
 @Service
+@RequiredArgsConstructor
 public class ImageService {
 
     private static final List<String> ALLOWED_CONTENT_TYPES = Arrays.asList(
@@ -16,14 +30,33 @@ public class ImageService {
 
     private static final long MAX_FILE_SIZE = 5 * 1024 * 1024; // 5MB
 
-    public byte[] processImage(MultipartFile file) {
+    private static final byte[] JPEG_MAGIC = { (byte) 0xFF, (byte) 0xD8, (byte) 0xFF };
+    private static final byte[] PNG_MAGIC = { (byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n' };
+
+    // Number of leading bytes contentTypeOf needs to recognise a format
+    public static final int MAGIC_LENGTH = PNG_MAGIC.length;
+
+    private static final int BUFFER_SIZE = 8192;
+
+    private final StoredImageRepository storedImageRepository;
+    private final OrphanedBlobRepository orphanedBlobRepository;
+    private final ImageStore imageStore;
+    private final ImageRenditionService imageRenditionService;
+
+    /**
+     * Validates the upload and streams it into the image store, hashing it on
+     * the way through a fixed-size buffer; the file is never held in memory as
+     * a whole. The type comes from the leading bytes, which must be JPEG or
+     * PNG whatever the client declared. Records the image in the images table
+     * and returns its id, or null when no file was sent.
+     */
+    public Long storeImageOptional(MultipartFile file) {
         if (file == null || file.isEmpty()) {
-            throw new ImageProcessingException("Image file is required");
+            return null;
         }
 
         // Validate content type
-        String contentType = file.getContentType();
-        if (!ALLOWED_CONTENT_TYPES.contains(contentType)) {
+        if (!ALLOWED_CONTENT_TYPES.contains(file.getContentType())) {
             throw new ImageProcessingException(
                     "Invalid image format. Only JPEG and PNG are allowed");
         }
@@ -34,17 +67,138 @@ public class ImageService {
                     "Image file size exceeds maximum limit of 5MB");
         }
 
-        try {
-            return file.getBytes();
+        String contentType;
+        ImageStore.Blob blob;
+        try (InputStream in = new BufferedInputStream(file.getInputStream(), BUFFER_SIZE)) {
+            in.mark(MAGIC_LENGTH);
+            contentType = contentTypeOf(in.readNBytes(MAGIC_LENGTH));
+            if (contentType == null) {
+                throw new ImageProcessingException(
+                        "Invalid image format. Only JPEG and PNG are allowed");
+            }
+            in.reset();
+            blob = imageStore.put(new SizeLimitedInputStream(in, MAX_FILE_SIZE));
         } catch (IOException e) {
             throw new ImageProcessingException("Failed to process image: " + e.getMessage());
         }
+
+        // If the surrounding transaction rolls back the blob stays behind unreferenced, which is harmless
+        StoredImage image = new StoredImage();
+        image.setContentHash(blob.hash());
+        image.setSizeBytes(blob.size());
+        image.setContentType(contentType);
+        Long imageId = storedImageRepository.save(image).getId();
+
+        // Resized off the request thread once the image row is visible
+        imageRenditionService.submitAfterCommit(imageId);
+        return imageId;
     }
 
-    public byte[] processImageOptional(MultipartFile file) {
-        if (file == null || file.isEmpty()) {
+    public StoredImage findImage(Long imageId) {
+        if (imageId == null) {
             return null;
         }
-        return processImage(file);
+        return storedImageRepository.findById(imageId).orElse(null);
+    }
+
+    // Hash of the bytes to serve: the rendition once it exists, the original until then or when none is asked for
+    public static String servedHash(StoredImage image, ImageRendition rendition) {
+        String renditionHash = rendition == null ? null : switch (rendition) {
+            case THUMBNAIL -> image.getThumbnailHash();
+            case CARD -> image.getCardHash();
+            case FULL -> image.getFullHash();
+        };
+        return renditionHash != null ? renditionHash : image.getContentHash();
+    }
+
+    // True while the original stands in for a rendition that is still to come
+    public static boolean isRenditionPending(StoredImage image, ImageRendition rendition) {
+        return rendition != null
+                && servedHash(image, rendition).equals(image.getContentHash())
+                && !Boolean.TRUE.equals(image.getRenditionFailed());
+    }
+
+    // The stored bytes as a streamable resource, or null if they are missing
+    public Resource openImage(String hash) {
+        return imageStore.get(hash);
+    }
+
+    /**
+     * Deletes the image rows. Their blobs are recorded as orphans in the same
+     * transaction; OrphanedBlobSweeper deletes the ones still unreferenced
+     * after the grace period.
+     */
+    public void deleteImages(Collection<Long> imageIds) {
+        if (imageIds.isEmpty()) {
+            return;
+        }
+        Set<String> hashes = new HashSet<>();
+        for (StoredImage image : storedImageRepository.findByIdIn(imageIds)) {
+            Stream.of(image.getContentHash(), image.getThumbnailHash(), image.getCardHash(), image.getFullHash())
+                    .filter(Objects::nonNull)
+                    .forEach(hashes::add);
+        }
+        storedImageRepository.deleteByIdIn(imageIds);
+        hashes.forEach(orphanedBlobRepository::record);
+    }
+
+    // Image type from the leading bytes of the file, or null if it is neither JPEG nor PNG
+    public static String contentTypeOf(byte[] head) {
+        if (startsWith(head, PNG_MAGIC)) {
+            return "image/png";
+        }
+        if (startsWith(head, JPEG_MAGIC)) {
+            return "image/jpeg";
+        }
+        return null;
+    }
+
+    private static boolean startsWith(byte[] head, byte[] magic) {
+        if (head.length < magic.length) {
+            return false;
+        }
+        for (int i = 0; i < magic.length; i++) {
+            if (head[i] != magic[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Fails the upload as soon as more than maxBytes have been read, whatever size the client announced
+    private static final class SizeLimitedInputStream extends FilterInputStream {
+
+        private final long maxBytes;
+        private long count;
+
+        SizeLimitedInputStream(InputStream in, long maxBytes) {
+            super(in);
+            this.maxBytes = maxBytes;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b != -1) {
+                count(1);
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int read = super.read(buffer, offset, length);
+            if (read > 0) {
+                count(read);
+            }
+            return read;
+        }
+
+        private void count(int read) {
+            count += read;
+            if (count > maxBytes) {
+                throw new ImageProcessingException("Image file size exceeds maximum limit of 5MB");
+            }
+        }
     }
 }
@@ -0,0 +1,28 @@
+package com.yatranow.service;
+
+import org.springframework.core.io.Resource;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Instant;
+
+/**
+ * Storage backend for image bytes, addressed by the SHA-256 of the content.
+ * Writing the same bytes twice stores them once. The database only keeps
+ * the hash, so another backend can be dropped in behind this interface.
+ */
+public interface ImageStore {
+
+    // Copies the stream into the store and returns its hash and size; does not close the stream.
+    // Storing bytes that are already present counts as a write for deleteIfUnchangedSince.
+    Blob put(InputStream content) throws IOException;
+
+    // Readable resource for the blob, or null if it is not in the store
+    Resource get(String hash);
+
+    // Deletes the blob unless it was written after the cutoff; returns whether it was deleted
+    boolean deleteIfUnchangedSince(String hash, Instant cutoff) throws IOException;
+
+    record Blob(String hash, long size) {
+    }
+}
@@ -0,0 +1,85 @@
+package com.yatranow.service;
+
+import com.yatranow.repository.JobLockRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.time.Duration;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * Database leases that keep scheduled jobs to one instance at a time. Use
+ * {@link SchedulerLock} on the job method, or {@link #runLocked} around a
+ * block of code.
+ */
+@Service
+@Slf4j
+public class JobLockService {
+
+    private final JobLockRepository jobLockRepository;
+    private final String instanceId;
+
+    public JobLockService(JobLockRepository jobLockRepository,
+            @Value("${yatranow.scheduler-lock.instance-id:}") String instanceId) {
+        this.jobLockRepository = jobLockRepository;
+        this.instanceId = instanceId.isBlank() ? defaultInstanceId() : instanceId;
+    }
+
+    // Names this instance as the holder of a lease
+    public String getInstanceId() {
+        return instanceId;
+    }
+
+    public boolean tryAcquire(String name, Duration lockAtMostFor) {
+        long leaseMicros = toMicros(lockAtMostFor);
+        boolean acquired = jobLockRepository.acquireExpired(name, instanceId, leaseMicros) == 1
+                || jobLockRepository.acquireNew(name, instanceId, leaseMicros) == 1;
+        if (acquired) {
+            log.debug("Lock {} acquired by {}", name, instanceId);
+        } else {
+            log.debug("Lock {} is held by another instance, skipping", name);
+        }
+        return acquired;
+    }
+
+    public void release(String name, Duration lockAtLeastFor) {
+        try {
+            if (jobLockRepository.release(name, instanceId, toMicros(lockAtLeastFor)) == 0) {
+                log.warn("Lock {} was taken over by another instance before {} released it", name, instanceId);
+            }
+        } catch (Exception e) {
+            // The lease still expires on its own
+            log.error("Failed to release lock {}: {}", name, e.getMessage(), e);
+        }
+    }
+
+    // Returns false without running the task if another instance holds the lock
+    public boolean runLocked(String name, Duration lockAtMostFor, Duration lockAtLeastFor, Runnable task) {
+        if (!tryAcquire(name, lockAtMostFor)) {
+            return false;
+        }
+        try {
+            task.run();
+            return true;
+        } finally {
+            release(name, lockAtLeastFor);
+        }
+    }
+
+    private static long toMicros(Duration duration) {
+        return duration.truncatedTo(ChronoUnit.MICROS).toNanos() / 1000;
+    }
+
+    private static String defaultInstanceId() {
+        String host;
+        try {
+            host = InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException e) {
+            host = "unknown";
+        }
+        return host + ":" + ProcessHandle.current().pid();
+    }
+}
@@ -0,0 +1,74 @@
+package com.yatranow.service;
+
+import com.yatranow.repository.OrphanedBlobRepository;
+import com.yatranow.repository.StoredImageRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Deletes image blobs that have had no image row for the grace period.
+ * Deleting right after the row went away would race with an upload of the
+ * same bytes, which finds the blob already stored but only commits its row
+ * later; such an upload refreshes the blob's modification time, and a blob
+ * written within the grace period is kept.
+ */
+@Service
+@Slf4j
+public class OrphanedBlobSweeper {
+
+    private static final int BATCH_SIZE = 500;
+
+    private final OrphanedBlobRepository orphanedBlobRepository;
+    private final StoredImageRepository storedImageRepository;
+    private final ImageStore imageStore;
+    private final Duration grace;
+
+    public OrphanedBlobSweeper(OrphanedBlobRepository orphanedBlobRepository,
+            StoredImageRepository storedImageRepository, ImageStore imageStore,
+            @Value("${yatranow.images.orphan-grace:PT24H}") Duration grace) {
+        this.orphanedBlobRepository = orphanedBlobRepository;
+        this.storedImageRepository = storedImageRepository;
+        this.imageStore = imageStore;
+        this.grace = grace;
+    }
+
+    @Scheduled(fixedDelayString = "${yatranow.images.orphan-sweep-interval-ms:3600000}")
+    @SchedulerLock(name = "sweepOrphanedBlobs", lockAtMostFor = "PT1H", lockAtLeastFor = "PT1M")
+    public void sweep() {
+        int deleted = 0;
+        while (true) {
+            List<String> hashes = orphanedBlobRepository.findHashesOrphanedBefore(grace.toSeconds(), BATCH_SIZE);
+            Instant cutoff = Instant.now().minus(grace);
+            List<String> done = new ArrayList<>();
+            for (String hash : hashes) {
+                try {
+                    // A blob referenced again simply leaves the list; the next deletion records it anew
+                    if (!storedImageRepository.isReferenced(hash) && imageStore.deleteIfUnchangedSince(hash, cutoff)) {
+                        deleted++;
+                    }
+                    done.add(hash);
+                } catch (IOException e) {
+                    log.warn("Failed to delete image blob {}: {}", hash, e.getMessage());
+                }
+            }
+            if (!done.isEmpty()) {
+                orphanedBlobRepository.deleteByHashIn(done);
+            }
+            // Stop on a short batch, or when failures would only bring the same hashes back
+            if (hashes.size() < BATCH_SIZE || done.size() < hashes.size()) {
+                break;
+            }
+        }
+        if (deleted > 0) {
+            log.info("Deleted {} orphaned image blobs", deleted);
+        }
+    }
+}
@@ -1,28 +1,51 @@
 package com.yatranow.service;
 
+import com.yatranow.dto.BookingResponse;
+import com.yatranow.dto.OwnerDashboardResponse;
+import com.yatranow.dto.RecurringScheduleRequest;
+import com.yatranow.dto.RecurringScheduleResponse;
 import com.yatranow.dto.RouteCreateRequest;
 import com.yatranow.dto.ScheduleCreateRequest;
 import com.yatranow.dto.VehicleCreateRequest;
 import com.yatranow.entity.*;
+import com.yatranow.event.RouteUpdatedEvent;
+import com.yatranow.event.SchedulesCreatedEvent;
+import com.yatranow.event.SchedulesDeletedEvent;
+import com.yatranow.exception.BadRequestException;
+import com.yatranow.exception.OwnerBlockedException;
 import com.yatranow.exception.ResourceNotFoundException;
+import com.yatranow.exception.ScheduleConflictException;
 import com.yatranow.repository.*;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 @Service
 @RequiredArgsConstructor
 public class OwnerService {
 
+    private static final int MAX_RECURRING_DAYS = 366;
+
     private final VehicleRepository vehicleRepository;
-    private final SeatRepository seatRepository;
+    private final SeatLayoutRegistry seatLayoutRegistry;
+    private final VehicleScheduleIndex vehicleScheduleIndex;
+    private final OwnerStatsService ownerStatsService;
+    private final ScheduleBulkDeleter scheduleBulkDeleter;
     private final RouteRepository routeRepository;
     private final ScheduleRepository scheduleRepository;
     private final BookingRepository bookingRepository;
     private final ComplaintRepository complaintRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Transactional
     public Vehicle createVehicle(VehicleCreateRequest request, Long ownerId) {
@@ -49,111 +72,10 @@ public class OwnerService {
             vehicle.setTotalSeats(request.totalSeats() != null ? request.totalSeats() : 100);
         }
 
-        vehicle = vehicleRepository.save(vehicle);
-
-        // Auto-generate seats for buses
-        if (request.vehicleType() == Vehicle.VehicleType.BUS) {
-            generateSeatsForBus(vehicle);
-        } else {
-            // For trains, generate basic seats
-            generateSeatsForTrain(vehicle);
-        }
-
-        return vehicle;
-    }
-
-    private void generateSeatsForBus(Vehicle vehicle) {
-        List<Seat> seats = new ArrayList<>();
-
-        switch (vehicle.getBusType()) {
-            case SUPER_LUXURY:
-                // 40 seats, 2x2 layout: 1A-10D
-                for (int row = 1; row <= 10; row++) {
-                    for (char col : new char[] { 'A', 'B', 'C', 'D' }) {
-                        Seat seat = new Seat();
-                        seat.setVehicleId(vehicle.getId());
-                        seat.setSeatNumber(row + String.valueOf(col));
-                        seat.setSeatType(Seat.SeatType.SEATER);
-                        seat.setIsAvailable(true);
-                        seats.add(seat);
-                    }
-                }
-                break;
-
-            case DELUXE:
-                // 45 seats, mixed layout
-                for (int row = 1; row <= 11; row++) {
-                    for (char col : new char[] { 'A', 'B', 'C', 'D' }) {
-                        Seat seat = new Seat();
-                        seat.setVehicleId(vehicle.getId());
-                        seat.setSeatNumber(row + String.valueOf(col));
-                        seat.setSeatType(Seat.SeatType.SEATER);
-                        seat.setIsAvailable(true);
-                        seats.add(seat);
-                        if (seats.size() >= 45)
-                            break;
-                    }
-                    if (seats.size() >= 45)
-                        break;
-                }
-                break;
-
-            case SLEEPER:
-                // 36 seats, 2x1 sleeper layout: L1-L18, U1-U18
-                for (int i = 1; i <= 18; i++) {
-                    Seat lowerSeat = new Seat();
-                    lowerSeat.setVehicleId(vehicle.getId());
-                    lowerSeat.setSeatNumber("L" + i);
-                    lowerSeat.setSeatType(Seat.SeatType.SLEEPER);
-                    lowerSeat.setIsAvailable(true);
-                    seats.add(lowerSeat);
-
-                    Seat upperSeat = new Seat();
-                    upperSeat.setVehicleId(vehicle.getId());
-                    upperSeat.setSeatNumber("U" + i);
-                    upperSeat.setSeatType(Seat.SeatType.SLEEPER);
-                    upperSeat.setIsAvailable(true);
-                    seats.add(upperSeat);
-                }
-                break;
-
-            case SEATER:
-                // 52 seats, 3x2 layout: 1A-11E
-                for (int row = 1; row <= 11; row++) {
-                    for (char col : new char[] { 'A', 'B', 'C', 'D', 'E' }) {
-                        Seat seat = new Seat();
-                        seat.setVehicleId(vehicle.getId());
-                        seat.setSeatNumber(row + String.valueOf(col));
-                        seat.setSeatType(Seat.SeatType.SEATER);
-                        seat.setIsAvailable(true);
-                        seats.add(seat);
-                        if (seats.size() >= 52)
-                            break;
-                    }
-                    if (seats.size() >= 52)
-                        break;
-                }
-                break;
-        }
-
-        seatRepository.saveAll(seats);
-    }
+        // Seats come from the shared layout template; fails early for unsupported train sizes
+        seatLayoutRegistry.templateFor(vehicle);
 
-    private void generateSeatsForTrain(Vehicle vehicle) {
-        List<Seat> seats = new ArrayList<>();
-        int totalSeats = vehicle.getTotalSeats();
-
-        // Simple seat generation for trains (e.g., S1-S100)
-        for (int i = 1; i <= totalSeats; i++) {
-            Seat seat = new Seat();
-            seat.setVehicleId(vehicle.getId());
-            seat.setSeatNumber("S" + i);
-            seat.setSeatType(Seat.SeatType.SEATER);
-            seat.setIsAvailable(true);
-            seats.add(seat);
-        }
-
-        seatRepository.saveAll(seats);
+        return vehicleRepository.save(vehicle);
     }
 
     public List<Vehicle> getMyVehicles(Long ownerId) {
@@ -180,42 +102,34 @@ public class OwnerService {
         route.setFromLocation(request.fromLocation());
         route.setToLocation(request.toLocation());
         route.setDistanceKm(request.distanceKm());
-        return routeRepository.save(route);
+        route = routeRepository.save(route);
+
+        eventPublisher.publishEvent(new RouteUpdatedEvent(route.getId()));
+        return route;
     }
 
-    @Transactional
+    // Not transactional: dependent schedules are removed in chunks that commit one by one
     public void deleteRoute(Long id) {
         if (!routeRepository.existsById(id)) {
             throw new ResourceNotFoundException("Route not found");
         }
 
-        // 1. Find all dependent schedules
-        List<Schedule> dependentSchedules = scheduleRepository.findByRouteId(id);
-
-        if (!dependentSchedules.isEmpty()) {
-            List<Long> scheduleIds = dependentSchedules.stream()
-                    .map(Schedule::getId)
-                    .toList();
-
-            // 2. Delete all bookings for these schedules
-            bookingRepository.deleteByScheduleIdIn(scheduleIds);
+        // 1. Delete dependent schedules and their bookings, counting upcoming ones as cancelled
+        scheduleBulkDeleter.deleteAll(limit -> scheduleRepository.findIdsByRouteId(id, limit), true);
 
-            // 3. Delete the schedules
-            scheduleRepository.deleteAll(dependentSchedules);
-        }
-
-        // 4. Finally delete the route
+        // 2. Finally delete the route
         routeRepository.deleteById(id);
     }
 
     @Transactional
     public Schedule createSchedule(ScheduleCreateRequest request, Long ownerId) {
-        // Verify vehicle belongs to owner
-        Vehicle vehicle = vehicleRepository.findById(request.vehicleId())
+        // Verify vehicle belongs to owner. Locked before anything else is read, which serializes
+        // schedule creation for the vehicle, see VehicleScheduleIndex
+        Vehicle vehicle = vehicleRepository.lockById(request.vehicleId())
                 .orElseThrow(() -> new ResourceNotFoundException("Vehicle not found"));
 
         if (!vehicle.getOwnerId().equals(ownerId)) {
-            throw new IllegalArgumentException("You can only create schedules for your own vehicles");
+            throw new OwnerBlockedException("You can only create schedules for your own vehicles");
         }
 
         // Verify route exists
@@ -232,59 +146,91 @@ public class OwnerService {
         schedule.setScheduleDate(request.scheduleDate());
         schedule.setAvailableSeats(vehicle.getTotalSeats());
 
-        return scheduleRepository.save(schedule);
+        // Reject if the vehicle is already on another trip at that time
+        if (!vehicleScheduleIndex.reserve(vehicle.getId(), List.of(schedule), false).isEmpty()) {
+            throw new ScheduleConflictException("Vehicle already has an overlapping schedule on " + request.scheduleDate());
+        }
+
+        schedule = scheduleRepository.save(schedule);
+        ownerStatsService.recordSchedulesCreated(List.of(schedule.getId()));
+
+        eventPublisher.publishEvent(new SchedulesCreatedEvent(List.of(schedule.getId())));
+        return schedule;
     }
 
-    public List<com.yatranow.dto.BookingResponse> getMyBookings(Long ownerId) {
-        List<Long> vehicleIds = vehicleRepository.findByOwnerId(ownerId)
+    @Transactional
+    public RecurringScheduleResponse createRecurringSchedules(RecurringScheduleRequest request, Long ownerId) {
+        if (request.endDate().isBefore(request.startDate())) {
+            throw new BadRequestException("End date must not be before start date");
+        }
+        if (ChronoUnit.DAYS.between(request.startDate(), request.endDate()) >= MAX_RECURRING_DAYS) {
+            throw new BadRequestException("Date range cannot exceed " + MAX_RECURRING_DAYS + " days");
+        }
+
+        // Ownership and route are checked once for the whole range; the vehicle is locked first, as above
+        Vehicle vehicle = vehicleRepository.lockById(request.vehicleId())
+                .orElseThrow(() -> new ResourceNotFoundException("Vehicle not found"));
+
+        if (!vehicle.getOwnerId().equals(ownerId)) {
+            throw new OwnerBlockedException("You can only create schedules for your own vehicles");
+        }
+
+        if (!routeRepository.existsById(request.routeId())) {
+            throw new ResourceNotFoundException("Route not found");
+        }
+
+        List<Schedule> schedules = new ArrayList<>();
+        for (LocalDate date = request.startDate(); !date.isAfter(request.endDate()); date = date.plusDays(1)) {
+            if (!request.daysOfWeek().contains(date.getDayOfWeek())) {
+                continue;
+            }
+
+            Schedule schedule = new Schedule();
+            schedule.setVehicleId(vehicle.getId());
+            schedule.setRouteId(request.routeId());
+            schedule.setDepartureTime(request.departureTime());
+            schedule.setArrivalTime(request.arrivalTime());
+            schedule.setPrice(request.price());
+            schedule.setScheduleDate(date);
+            schedule.setAvailableSeats(vehicle.getTotalSeats());
+            schedules.add(schedule);
+        }
+
+        // Checked and reserved in one step against the vehicle's trips, see VehicleScheduleIndex
+        boolean skipConflicts = Boolean.TRUE.equals(request.skipConflicts());
+        List<LocalDate> conflicts = vehicleScheduleIndex.reserve(vehicle.getId(), schedules, skipConflicts)
                 .stream()
-                .map(Vehicle::getId)
+                .map(Schedule::getScheduleDate)
                 .toList();
 
-        List<Booking> bookings = bookingRepository.findByVehicleIds(vehicleIds);
-
-        return bookings.stream().map(b -> {
-            Schedule schedule = b.getSchedule();
-            Route route = schedule != null
-                    ? routeRepository.findById(schedule.getRouteId()).orElse(null)
-                    : null;
-
-            String fromLocation = route != null ? route.getFromLocation() : "-";
-            String toLocation = route != null ? route.getToLocation() : "-";
-            Double price = schedule != null ? schedule.getPrice() : null;
-            String departure = schedule != null && schedule.getDepartureTime() != null
-                    ? schedule.getDepartureTime().toString()
-                    : null;
-            String arrival = schedule != null && schedule.getArrivalTime() != null
-                    ? schedule.getArrivalTime().toString()
-                    : null;
-            String vehicleName = null;
-            String vehicleNumber = null;
-            if (schedule != null) {
-                var vehicle = vehicleRepository.findById(schedule.getVehicleId()).orElse(null);
-                if (vehicle != null) {
-                    vehicleName = vehicle.getName();
-                    vehicleNumber = vehicle.getVehicleNumber();
-                }
-            }
+        if (!conflicts.isEmpty() && !skipConflicts) {
+            throw new ScheduleConflictException("Vehicle already has overlapping schedules on " + conflicts);
+        }
+        Set<LocalDate> skipped = new HashSet<>(conflicts);
+        schedules.removeIf(schedule -> skipped.contains(schedule.getScheduleDate()));
 
-            return new com.yatranow.dto.BookingResponse(
-                    b.getId(),
-                    b.getScheduleId(),
-                    b.getSeatNumber(),
-                    b.getPassengerName(),
-                    b.getPassengerAge(),
-                    b.getPassengerGender(),
-                    vehicleName,
-                    vehicleNumber,
-                    fromLocation,
-                    toLocation,
-                    departure,
-                    arrival,
-                    price,
-                    b.getBookingDate(),
-                    b.getStatus() != null ? b.getStatus().name() : "CONFIRMED");
-        }).toList();
+        scheduleRepository.insertAll(schedules);
+
+        if (!schedules.isEmpty()) {
+            List<Long> scheduleIds = schedules.stream().map(Schedule::getId).toList();
+            ownerStatsService.recordSchedulesCreated(scheduleIds);
+            eventPublisher.publishEvent(new SchedulesCreatedEvent(scheduleIds));
+        }
+        return new RecurringScheduleResponse(schedules, conflicts);
+    }
+
+    public Page<BookingResponse> getMyBookings(Long ownerId, Long scheduleId, LocalDate fromDate, LocalDate toDate,
+            Pageable pageable) {
+        if (fromDate != null && toDate != null && toDate.isBefore(fromDate)) {
+            throw new BadRequestException("toDate must not be before fromDate");
+        }
+
+        // One joined query per page; vehicle, route and schedule come back with each row
+        return bookingRepository.findOwnerBookings(ownerId, scheduleId, fromDate, toDate, pageable);
+    }
+
+    public OwnerDashboardResponse getDashboard(Long ownerId, LocalDate fromDate, LocalDate toDate) {
+        return ownerStatsService.getDashboard(ownerId, fromDate, toDate);
     }
 
     public List<Complaint> getMyComplaints(Long ownerId) {
@@ -314,12 +260,15 @@ public class OwnerService {
                 .orElseThrow(() -> new ResourceNotFoundException("Vehicle not found"));
 
         if (!vehicle.getOwnerId().equals(ownerId)) {
-            throw new IllegalArgumentException("You can only delete your own schedules");
+            throw new OwnerBlockedException("You can only delete your own schedules");
         }
 
-        // Delete associated bookings first
+        // Delete associated bookings first, counting them as cancelled if the trip has not run yet
+        ownerStatsService.recordSchedulesCancelled(List.of(scheduleId));
         bookingRepository.deleteByScheduleIdIn(List.of(scheduleId));
 
         scheduleRepository.delete(schedule);
+
+        eventPublisher.publishEvent(new SchedulesDeletedEvent(List.of(scheduleId)));
     }
 }
@@ -0,0 +1,100 @@
+package com.yatranow.service;
+
+import com.yatranow.dto.OwnerDashboardResponse;
+import com.yatranow.exception.BadRequestException;
+import com.yatranow.repository.OwnerDailyStatsRepository;
+import com.yatranow.repository.ScheduleRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.Collection;
+
+/**
+ * Owner dashboard figures (seats offered, seats sold, revenue, cancellations)
+ * kept per owner, vehicle, route and trip day in owner_daily_stats. Each
+ * write path adds its delta in the same transaction as the change itself,
+ * so the dashboard only ever reads the small rollup table; callers without
+ * a transaction, such as the seeder, get one of their own.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class OwnerStatsService {
+
+    private static final int MAX_DASHBOARD_DAYS = 366;
+    private static final Duration BACKFILL_LOCK_AT_MOST_FOR = Duration.ofMinutes(30);
+
+    private final OwnerDailyStatsRepository statsRepository;
+    private final ScheduleRepository scheduleRepository;
+    private final JobLockService jobLockService;
+    private final TransactionTemplate transactionTemplate;
+
+    // Runs before DataSeeder, which depends on this service, so seeded schedules are not counted twice.
+    // One instance builds the rollups in a single transaction; the others find the table filled and skip.
+    @PostConstruct
+    public void backfillIfEmpty() {
+        boolean ran = jobLockService.runLocked("backfillOwnerStats", BACKFILL_LOCK_AT_MOST_FOR, Duration.ZERO,
+                () -> transactionTemplate.executeWithoutResult(status -> {
+                    if (statsRepository.count() == 0 && scheduleRepository.count() > 0) {
+                        log.info("Building owner dashboard rollups from existing schedules and bookings...");
+                        int rows = statsRepository.backfill();
+                        log.info("Owner dashboard rollups built ({} rows).", rows);
+                    }
+                }));
+        if (!ran) {
+            log.info("Owner dashboard rollups are being built by another instance, skipping");
+        }
+    }
+
+    @Transactional
+    public void recordSchedulesCreated(Collection<Long> scheduleIds) {
+        if (!scheduleIds.isEmpty()) {
+            statsRepository.addSchedules(scheduleIds);
+        }
+    }
+
+    @Transactional
+    public void recordSeatsSold(Long scheduleId, int seats) {
+        statsRepository.addSeatsSold(scheduleId, seats);
+    }
+
+    // Must run before the schedules' bookings are deleted
+    @Transactional
+    public void recordSchedulesCancelled(Collection<Long> scheduleIds) {
+        if (!scheduleIds.isEmpty()) {
+            statsRepository.cancelSchedules(scheduleIds);
+        }
+    }
+
+    @Transactional
+    public void deleteOwnerStats(Long ownerId) {
+        statsRepository.deleteByOwnerId(ownerId);
+    }
+
+    public OwnerDashboardResponse getDashboard(Long ownerId, LocalDate fromDate, LocalDate toDate) {
+        LocalDate today = LocalDate.now();
+        fromDate = fromDate != null ? fromDate : today.minusDays(30);
+        toDate = toDate != null ? toDate : today.plusDays(30);
+        if (toDate.isBefore(fromDate)) {
+            throw new BadRequestException("toDate must not be before fromDate");
+        }
+        if (ChronoUnit.DAYS.between(fromDate, toDate) >= MAX_DASHBOARD_DAYS) {
+            throw new BadRequestException("Date range cannot exceed " + MAX_DASHBOARD_DAYS + " days");
+        }
+
+        return new OwnerDashboardResponse(
+                fromDate,
+                toDate,
+                statsRepository.findTotals(ownerId, fromDate, toDate),
+                statsRepository.findByRoute(ownerId, fromDate, toDate),
+                statsRepository.findByVehicle(ownerId, fromDate, toDate),
+                statsRepository.findByDay(ownerId, fromDate, toDate));
+    }
+}
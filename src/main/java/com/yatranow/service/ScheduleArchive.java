@@ -0,0 +1,233 @@
+package com.yatranow.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.yatranow.dto.ArchivedBooking;
+import com.yatranow.dto.ArchivedSchedule;
+import com.yatranow.dto.BookingResponse;
+import com.yatranow.dto.SearchResponse;
+import com.yatranow.entity.Booking;
+import com.yatranow.exception.BadRequestException;
+import com.yatranow.repository.BookingRepository;
+import com.yatranow.repository.ScheduleRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+import java.util.stream.Collectors;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Cold storage for past schedules and their bookings. Each schedule date has
+ * its own gzip-compressed NDJSON file under {dir}/yyyy/MM/, one schedule per
+ * line with its bookings embedded. Files are only ever appended to: every
+ * write adds one complete gzip member, which GZIPInputStream reads back as a
+ * single stream.
+ *
+ * Every user with bookings in a chunk also gets the schedules appended to
+ * their own file under {dir}/users/, holding only their bookings, so a
+ * user's archive is one file read whatever the date range.
+ *
+ * The directory must be an absolute path on storage every instance mounts,
+ * since the nightly cleanup runs on whichever instance holds its lock and
+ * lookups are served by any. Only the cleanup writes, so there is one writer
+ * at a time.
+ *
+ * A chunk is written and forced to disk before the transaction deleting its
+ * rows starts, so a failed delete can leave a schedule in the archive twice;
+ * readers keep the last copy of each schedule.
+ */
+@Component
+@Slf4j
+public class ScheduleArchive {
+
+    public static final int MAX_RANGE_DAYS = 92;
+
+    private final ScheduleRepository scheduleRepository;
+    private final BookingRepository bookingRepository;
+    private final ObjectMapper objectMapper;
+    private final Path directory;
+
+    public ScheduleArchive(ScheduleRepository scheduleRepository, BookingRepository bookingRepository,
+            ObjectMapper objectMapper,
+            @Value("${yatranow.archive.dir:}") String directory) {
+        this.scheduleRepository = scheduleRepository;
+        this.bookingRepository = bookingRepository;
+        this.objectMapper = objectMapper;
+        if (directory.isBlank() || !Path.of(directory).isAbsolute()) {
+            throw new IllegalStateException(
+                    "yatranow.archive.dir must be an absolute path on storage shared by all instances, got '"
+                            + directory + "'");
+        }
+        this.directory = Path.of(directory);
+    }
+
+    // Loads the schedules with their bookings and appends them to their date and user files
+    public void archive(List<Long> scheduleIds) {
+        List<SearchResponse> rows = scheduleRepository.findSearchResponsesByIds(scheduleIds);
+        if (rows.size() != scheduleIds.size()) {
+            // The projection inner-joins vehicle and route; a schedule missing from it must not be deleted
+            Set<Long> found = rows.stream().map(SearchResponse::scheduleId).collect(Collectors.toSet());
+            List<Long> missing = scheduleIds.stream().filter(id -> !found.contains(id)).toList();
+            throw new IllegalStateException("Schedules without vehicle or route cannot be archived: " + missing);
+        }
+
+        Map<Long, List<ArchivedBooking>> bookingsBySchedule = bookingRepository.findByScheduleIdIn(scheduleIds)
+                .stream()
+                .collect(Collectors.groupingBy(Booking::getScheduleId,
+                        Collectors.mapping(ScheduleArchive::toArchived, Collectors.toList())));
+
+        LocalDateTime archivedAt = LocalDateTime.now();
+        Map<LocalDate, List<ArchivedSchedule>> byDate = new TreeMap<>();
+        Map<Long, List<ArchivedSchedule>> byUser = new TreeMap<>();
+        for (SearchResponse s : rows) {
+            ArchivedSchedule schedule = new ArchivedSchedule(
+                    s.scheduleId(), s.vehicleId(), s.vehicleName(), s.vehicleNumber(), s.ownerId(),
+                    s.fromLocation(), s.toLocation(), s.scheduleDate(), s.departureTime(), s.arrivalTime(),
+                    s.price(), archivedAt,
+                    bookingsBySchedule.getOrDefault(s.scheduleId(), List.of()));
+            byDate.computeIfAbsent(s.scheduleDate(), date -> new ArrayList<>()).add(schedule);
+            schedule.bookings().stream()
+                    .collect(Collectors.groupingBy(ArchivedBooking::userId))
+                    .forEach((userId, bookings) -> byUser.computeIfAbsent(userId, id -> new ArrayList<>())
+                            .add(schedule.withBookings(bookings)));
+        }
+
+        try {
+            for (Map.Entry<LocalDate, List<ArchivedSchedule>> entry : byDate.entrySet()) {
+                append(fileFor(entry.getKey()), entry.getValue());
+            }
+            for (Map.Entry<Long, List<ArchivedSchedule>> entry : byUser.entrySet()) {
+                append(userFileFor(entry.getKey()), entry.getValue());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write schedule archive", e);
+        }
+    }
+
+    public List<ArchivedSchedule> findSchedules(LocalDate date) {
+        return read(fileFor(date));
+    }
+
+    // Keeps the last copy of each schedule
+    private List<ArchivedSchedule> read(Path file) {
+        if (!Files.exists(file)) {
+            return List.of();
+        }
+
+        Map<Long, ArchivedSchedule> schedules = new LinkedHashMap<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                new GZIPInputStream(Files.newInputStream(file)), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (!line.isBlank()) {
+                    ArchivedSchedule schedule = objectMapper.readValue(line, ArchivedSchedule.class);
+                    schedules.put(schedule.scheduleId(), schedule);
+                }
+            }
+        } catch (EOFException e) {
+            // A write cut short by a crash; everything before it is intact
+            log.warn("Archive file {} ends with a truncated entry", file);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read schedule archive " + file, e);
+        }
+        return new ArrayList<>(schedules.values());
+    }
+
+    // Archived bookings in the date range, optionally only those of one user; without a user every
+    // day in the range is a file to read, so the range is limited
+    public List<BookingResponse> findBookings(LocalDate fromDate, LocalDate toDate, Long userId) {
+        if (fromDate.isAfter(toDate)) {
+            throw new BadRequestException("fromDate must not be after toDate");
+        }
+        if (userId != null) {
+            List<BookingResponse> bookings = new ArrayList<>();
+            for (ArchivedSchedule schedule : read(userFileFor(userId))) {
+                if (!schedule.scheduleDate().isBefore(fromDate) && !schedule.scheduleDate().isAfter(toDate)) {
+                    schedule.bookings().forEach(booking -> bookings.add(schedule.toBookingResponse(booking)));
+                }
+            }
+            bookings.sort(Comparator.comparing(BookingResponse::scheduleDate));
+            return bookings;
+        }
+        if (ChronoUnit.DAYS.between(fromDate, toDate) >= MAX_RANGE_DAYS) {
+            throw new BadRequestException("Archive lookups are limited to " + MAX_RANGE_DAYS + " days");
+        }
+
+        List<BookingResponse> bookings = new ArrayList<>();
+        for (LocalDate date = fromDate; !date.isAfter(toDate); date = date.plusDays(1)) {
+            for (ArchivedSchedule schedule : findSchedules(date)) {
+                for (ArchivedBooking booking : schedule.bookings()) {
+                    bookings.add(schedule.toBookingResponse(booking));
+                }
+            }
+        }
+        return bookings;
+    }
+
+    private synchronized void append(Path file, List<ArchivedSchedule> schedules) throws IOException {
+        // Compressed in memory first so the file only ever receives whole gzip members
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(buffer)) {
+            for (ArchivedSchedule schedule : schedules) {
+                gzip.write(objectMapper.writeValueAsBytes(schedule));
+                gzip.write('\n');
+            }
+        }
+
+        Files.createDirectories(file.getParent());
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.APPEND)) {
+            long sizeBefore = channel.size();
+            try {
+                ByteBuffer bytes = ByteBuffer.wrap(buffer.toByteArray());
+                while (bytes.hasRemaining()) {
+                    channel.write(bytes);
+                }
+                channel.force(true);
+            } catch (IOException e) {
+                // Drop the partial member so later appends stay readable
+                channel.truncate(sizeBefore);
+                throw e;
+            }
+        }
+    }
+
+    private Path fileFor(LocalDate date) {
+        return directory
+                .resolve(String.valueOf(date.getYear()))
+                .resolve(String.format("%02d", date.getMonthValue()))
+                .resolve(date + ".ndjson.gz");
+    }
+
+    // Spread over 1000 directories so none of them grows too large
+    private Path userFileFor(Long userId) {
+        return directory
+                .resolve("users")
+                .resolve(String.format("%03d", userId % 1000))
+                .resolve(userId + ".ndjson.gz");
+    }
+
+    private static ArchivedBooking toArchived(Booking booking) {
+        return new ArchivedBooking(
+                booking.getId(),
+                booking.getUserId(),
+                booking.getSeatNumber(),
+                booking.getPassengerName(),
+                booking.getPassengerAge(),
+                booking.getPassengerGender(),
+                booking.getBookingDate(),
+                booking.getStatus() != null ? booking.getStatus().name() : "CONFIRMED");
+    }
+}
@@ -0,0 +1,82 @@
+package com.yatranow.service;
+
+import com.yatranow.event.SchedulesDeletedEvent;
+import com.yatranow.repository.BookingRepository;
+import com.yatranow.repository.ScheduleRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.IntConsumer;
+
+/**
+ * Deletes large sets of schedules together with their bookings in chunks of
+ * CHUNK_SIZE ids. Each chunk is a few set-based DELETE statements in its own
+ * transaction, so locks are held briefly and nothing is loaded but the ids.
+ * Callers must not already be in a transaction, or every chunk would join it.
+ */
+@Component
+@RequiredArgsConstructor
+public class ScheduleBulkDeleter {
+
+    public static final int CHUNK_SIZE = 500;
+
+    private final ScheduleRepository scheduleRepository;
+    private final BookingRepository bookingRepository;
+    private final OwnerStatsService ownerStatsService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+
+    public int deleteAll(Function<Limit, List<Long>> nextChunk, boolean countAsCancelled) {
+        return deleteAll(nextChunk, countAsCancelled, deleted -> {
+        });
+    }
+
+    public int deleteAll(Function<Limit, List<Long>> nextChunk, boolean countAsCancelled, IntConsumer onChunk) {
+        return deleteAll(nextChunk, countAsCancelled, ids -> {
+        }, onChunk);
+    }
+
+    /**
+     * Repeatedly takes the next chunk of ids from nextChunk and deletes it until
+     * a chunk comes back short. With countAsCancelled, upcoming trips are
+     * recorded as cancellations in the owner dashboard. beforeDelete sees each
+     * chunk's ids before its transaction starts, so slow work such as writing
+     * files holds no locks; if it throws, deletion stops and the chunk stays.
+     * onChunk gets the size of every committed chunk. Returns the number of
+     * schedules deleted.
+     */
+    public int deleteAll(Function<Limit, List<Long>> nextChunk, boolean countAsCancelled,
+            Consumer<List<Long>> beforeDelete, IntConsumer onChunk) {
+        int total = 0;
+        while (true) {
+            List<Long> ids = nextChunk.apply(Limit.of(CHUNK_SIZE));
+            if (ids.isEmpty()) {
+                return total;
+            }
+
+            beforeDelete.accept(ids);
+            transactionTemplate.executeWithoutResult(status -> {
+                if (countAsCancelled) {
+                    ownerStatsService.recordSchedulesCancelled(ids);
+                }
+                bookingRepository.deleteByScheduleIdIn(ids);
+                scheduleRepository.deleteByIdIn(ids);
+
+                // Listeners run as this chunk commits
+                eventPublisher.publishEvent(new SchedulesDeletedEvent(ids));
+            });
+
+            total += ids.size();
+            onChunk.accept(ids.size());
+            if (ids.size() < CHUNK_SIZE) {
+                return total;
+            }
+        }
+    }
+}
@@ -1,56 +1,61 @@
 package com.yatranow.service;
 
-import com.yatranow.entity.Schedule;
-import com.yatranow.repository.BookingRepository;
 import com.yatranow.repository.ScheduleRepository;
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
-import java.util.List;
-import java.util.stream.Collectors;
 
 @Service
-@RequiredArgsConstructor
 @Slf4j
 public class ScheduleCleanupService {
 
+    public enum Mode {
+        DELETE, ARCHIVE
+    }
+
     private final ScheduleRepository scheduleRepository;
-    private final BookingRepository bookingRepository;
+    private final ScheduleBulkDeleter scheduleBulkDeleter;
+    private final ScheduleArchive scheduleArchive;
+    private final Mode mode;
+
+    public ScheduleCleanupService(ScheduleRepository scheduleRepository, ScheduleBulkDeleter scheduleBulkDeleter,
+            ScheduleArchive scheduleArchive,
+            @Value("${yatranow.cleanup.mode:archive}") String mode) {
+        this.scheduleRepository = scheduleRepository;
+        this.scheduleBulkDeleter = scheduleBulkDeleter;
+        this.scheduleArchive = scheduleArchive;
+        this.mode = Mode.valueOf(mode.trim().toUpperCase());
+    }
 
-    // Run daily at midnight (00:00:00)
+    // Run daily at midnight (00:00:00) on one instance only. Not transactional: each chunk commits on its own
     @Scheduled(cron = "0 0 0 * * ?")
-    @Transactional
+    @SchedulerLock(name = "cleanupPastSchedules", lockAtMostFor = "PT6H", lockAtLeastFor = "PT5M")
     public void cleanupPastSchedules() {
         LocalDate today = LocalDate.now();
-        log.info("Starting cleanup of schedules before {}", today);
+        log.info("Starting cleanup of schedules before {} (mode {})", today, mode);
 
         try {
-            // 1. Find past schedules
-            List<Schedule> pastSchedules = scheduleRepository.findByScheduleDateBefore(today);
-
-            if (pastSchedules.isEmpty()) {
+            // Past schedules and their bookings, a chunk at a time; their figures stay in the owner dashboard rollups.
+            // In archive mode each chunk is written to the archive before the transaction deleting it.
+            int deleted = scheduleBulkDeleter.deleteAll(
+                    limit -> scheduleRepository.findIdsByScheduleDateBefore(today, limit), false,
+                    ids -> {
+                        if (mode == Mode.ARCHIVE) {
+                            scheduleArchive.archive(ids);
+                        }
+                    },
+                    chunk -> {
+                    });
+
+            if (deleted == 0) {
                 log.info("No past schedules found to cleanup.");
-                return;
+            } else {
+                log.info("Cleanup completed successfully, {} past schedules {}.", deleted,
+                        mode == Mode.ARCHIVE ? "archived" : "deleted");
             }
-
-            List<Long> pastScheduleIds = pastSchedules.stream()
-                    .map(Schedule::getId)
-                    .collect(Collectors.toList());
-
-            // 2. Delete associated bookings first (to respect FK constraints if cascade
-            // isn't automatic, and for safety)
-            log.info("Deleting bookings associated with {} past schedules...", pastScheduleIds.size());
-            bookingRepository.deleteByScheduleIdIn(pastScheduleIds);
-
-            // 3. Delete the schedules
-            log.info("Deleting {} past schedules...", pastScheduleIds.size());
-            scheduleRepository.deleteAll(pastSchedules);
-
-            log.info("Cleanup completed successfully.");
         } catch (Exception e) {
             log.error("Error during schedule cleanup: {}", e.getMessage(), e);
         }
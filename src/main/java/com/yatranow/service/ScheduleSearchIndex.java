@@ -0,0 +1,263 @@
+package com.yatranow.service;
+
+import com.yatranow.dto.SearchCursor;
+import com.yatranow.dto.SearchResponse;
+import com.yatranow.event.RouteUpdatedEvent;
+import com.yatranow.event.SchedulesCreatedEvent;
+import com.yatranow.event.SchedulesDeletedEvent;
+import com.yatranow.event.SeatsBookedEvent;
+import com.yatranow.repository.ScheduleRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory copy of all schedules from today onwards, grouped by normalized
+ * (from, to, date). Searches for today or later are answered from here
+ * without touching the database.
+ *
+ * The index is loaded once the application is ready and kept current by the
+ * schedule/booking events, which are applied after the publishing
+ * transaction commits. A periodic full reload picks up changes made by other
+ * instances.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ScheduleSearchIndex {
+
+    private final ScheduleRepository scheduleRepository;
+
+    private volatile State state = new State();
+    private volatile boolean ready = false;
+
+    // Schedule ids changed while a reload was running; re-read after the swap
+    private Set<Long> touchedDuringReload = null;
+
+    public boolean covers(LocalDate date) {
+        return ready && !date.isBefore(LocalDate.now());
+    }
+
+    public Page<SearchResponse> search(String from, String to, LocalDate date, Pageable pageable) {
+        List<SearchResponse> matches = findAvailable(from, to, date);
+        matches.sort(comparatorFor(pageable.getSort()));
+
+        int start = (int) Math.min(pageable.getOffset(), matches.size());
+        int end = Math.min(start + pageable.getPageSize(), matches.size());
+        return new PageImpl<>(new ArrayList<>(matches.subList(start, end)), pageable, matches.size());
+    }
+
+    // Keyset variant of search: returns up to limit results after the cursor position
+    public List<SearchResponse> searchAfter(String from, String to, LocalDate date, String sortBy,
+            SearchCursor cursor, int limit) {
+        Comparator<SearchResponse> comparator = comparatorFor(Sort.by(sortBy));
+        List<SearchResponse> matches = findAvailable(from, to, date);
+        matches.sort(comparator);
+
+        int start = 0;
+        if (cursor != null) {
+            // Stand-in for the last row the client saw; only the sort key and id matter
+            int position = Collections.binarySearch(matches, cursorRow(cursor), comparator);
+            start = position >= 0 ? position + 1 : -position - 1;
+        }
+        return new ArrayList<>(matches.subList(start, Math.min(start + limit, matches.size())));
+    }
+
+    private SearchResponse cursorRow(SearchCursor cursor) {
+        boolean byTime = SearchCursor.SORT_BY_DEPARTURE_TIME.equals(cursor.sortBy());
+        return new SearchResponse(cursor.lastScheduleId(), null, null, null, (String) null, (String) null,
+                null, null, null, byTime ? cursor.lastDepartureTime() : null, null,
+                byTime ? null : cursor.lastPrice(), null, null, null, null);
+    }
+
+    private List<SearchResponse> findAvailable(String from, String to, LocalDate date) {
+        Map<Long, SearchResponse> bucket = state.byKey.get(SearchKey.of(from, to, date));
+        if (bucket == null) {
+            return new ArrayList<>();
+        }
+        List<SearchResponse> matches = new ArrayList<>(bucket.size());
+        for (SearchResponse response : bucket.values()) {
+            if (response.availableSeats() > 0) {
+                matches.add(response);
+            }
+        }
+        return matches;
+    }
+
+    private Comparator<SearchResponse> comparatorFor(Sort sort) {
+        Comparator<SearchResponse> comparator = null;
+        for (Sort.Order order : sort) {
+            Comparator<SearchResponse> next = switch (order.getProperty()) {
+                case "price" -> Comparator.comparing(SearchResponse::price);
+                case "departureTime" -> Comparator.comparing(SearchResponse::departureTime);
+                default -> null;
+            };
+            if (next == null) {
+                continue;
+            }
+            if (order.isDescending()) {
+                next = next.reversed();
+            }
+            comparator = comparator == null ? next : comparator.thenComparing(next);
+        }
+        Comparator<SearchResponse> byId = Comparator.comparing(SearchResponse::scheduleId);
+        return comparator == null ? byId : comparator.thenComparing(byId);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        reload();
+    }
+
+    @Scheduled(initialDelayString = "${yatranow.search-index.refresh-interval-ms:300000}",
+            fixedDelayString = "${yatranow.search-index.refresh-interval-ms:300000}")
+    public void reload() {
+        synchronized (this) {
+            touchedDuringReload = new HashSet<>();
+        }
+
+        State fresh = new State();
+        try {
+            scheduleRepository.findSearchResponsesFrom(LocalDate.now()).forEach(fresh::put);
+        } catch (RuntimeException e) {
+            synchronized (this) {
+                touchedDuringReload = null;
+            }
+            log.error("Failed to load the schedule search index: {}", e.getMessage(), e);
+            return;
+        }
+
+        Set<Long> touched;
+        synchronized (this) {
+            state = fresh;
+            touched = touchedDuringReload;
+            touchedDuringReload = null;
+        }
+        ready = true;
+        log.debug("Schedule search index loaded with {} schedules", fresh.keyBySchedule.size());
+
+        if (!touched.isEmpty()) {
+            refresh(touched);
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onSchedulesCreated(SchedulesCreatedEvent event) {
+        refresh(event.scheduleIds());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onSchedulesDeleted(SchedulesDeletedEvent event) {
+        synchronized (this) {
+            markTouched(event.scheduleIds());
+            event.scheduleIds().forEach(state::remove);
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onSeatsBooked(SeatsBookedEvent event) {
+        adjustAvailableSeats(event.scheduleId(), -event.seatNumbers().size());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onRouteUpdated(RouteUpdatedEvent event) {
+        List<SearchResponse> rows = scheduleRepository.findSearchResponsesByRouteIdFrom(
+                event.routeId(), LocalDate.now());
+        synchronized (this) {
+            markTouched(rows.stream().map(SearchResponse::scheduleId).toList());
+            rows.forEach(state::put);
+        }
+    }
+
+    public void adjustAvailableSeats(Long scheduleId, int delta) {
+        synchronized (this) {
+            markTouched(List.of(scheduleId));
+            state.adjustAvailableSeats(scheduleId, delta);
+        }
+    }
+
+    // Re-reads the given schedules from the database and replaces (or drops) their entries
+    public void refresh(Collection<Long> scheduleIds) {
+        if (scheduleIds.isEmpty()) {
+            return;
+        }
+        List<SearchResponse> rows = scheduleRepository.findSearchResponsesByIds(scheduleIds);
+        LocalDate today = LocalDate.now();
+        synchronized (this) {
+            markTouched(scheduleIds);
+            scheduleIds.forEach(state::remove);
+            rows.stream()
+                    .filter(row -> !row.scheduleDate().isBefore(today))
+                    .forEach(state::put);
+        }
+    }
+
+    private void markTouched(Collection<Long> scheduleIds) {
+        if (touchedDuringReload != null) {
+            touchedDuringReload.addAll(scheduleIds);
+        }
+    }
+
+    private record SearchKey(String from, String to, LocalDate date) {
+
+        static SearchKey of(String from, String to, LocalDate date) {
+            return new SearchKey(normalize(from), normalize(to), date);
+        }
+
+        private static String normalize(String location) {
+            return location.trim().toLowerCase(Locale.ROOT);
+        }
+    }
+
+    // Writes happen under the index monitor; searches read the maps without locking
+    private static final class State {
+
+        final Map<SearchKey, Map<Long, SearchResponse>> byKey = new ConcurrentHashMap<>();
+        final Map<Long, SearchKey> keyBySchedule = new ConcurrentHashMap<>();
+
+        void put(SearchResponse response) {
+            remove(response.scheduleId());
+            SearchKey key = SearchKey.of(response.fromLocation(), response.toLocation(), response.scheduleDate());
+            byKey.computeIfAbsent(key, k -> new ConcurrentHashMap<>()).put(response.scheduleId(), response);
+            keyBySchedule.put(response.scheduleId(), key);
+        }
+
+        void remove(Long scheduleId) {
+            SearchKey key = keyBySchedule.remove(scheduleId);
+            if (key == null) {
+                return;
+            }
+            Map<Long, SearchResponse> bucket = byKey.get(key);
+            if (bucket != null) {
+                bucket.remove(scheduleId);
+                if (bucket.isEmpty()) {
+                    byKey.remove(key);
+                }
+            }
+        }
+
+        void adjustAvailableSeats(Long scheduleId, int delta) {
+            SearchKey key = keyBySchedule.get(scheduleId);
+            if (key == null) {
+                return;
+            }
+            byKey.get(key).computeIfPresent(scheduleId, (id, r) -> new SearchResponse(
+                    r.scheduleId(), r.vehicleId(), r.vehicleName(), r.vehicleNumber(), r.vehicleType(),
+                    r.busType(), r.fromLocation(), r.toLocation(), r.scheduleDate(), r.departureTime(),
+                    r.arrivalTime(), r.price(), r.availableSeats() + delta, r.ownerId(), r.ownerName(),
+                    r.agencyName()));
+        }
+    }
+}
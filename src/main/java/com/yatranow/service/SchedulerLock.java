@@ -0,0 +1,25 @@
+package com.yatranow.service;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Runs a method, typically a @Scheduled job, on only one instance at a time.
+ * Instances that find the lease taken skip the run. Durations are ISO-8601
+ * (e.g. "PT1H").
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface SchedulerLock {
+
+    // Lease name, shared by every instance running the job
+    String name();
+
+    // How long the lease lasts if the holder dies; must exceed the job's normal run time
+    String lockAtMostFor();
+
+    // Minimum lease, covering instances that fire a little later than the holder
+    String lockAtLeastFor() default "PT0S";
+}
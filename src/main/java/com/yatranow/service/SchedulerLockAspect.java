@@ -0,0 +1,31 @@
+package com.yatranow.service;
+
+import lombok.RequiredArgsConstructor;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Aspect
+@Component
+@RequiredArgsConstructor
+public class SchedulerLockAspect {
+
+    private final JobLockService jobLockService;
+
+    // Skipped runs return null, which is all a @Scheduled method can return
+    @Around("@annotation(schedulerLock)")
+    public Object runLocked(ProceedingJoinPoint joinPoint, SchedulerLock schedulerLock) throws Throwable {
+        String name = schedulerLock.name();
+        if (!jobLockService.tryAcquire(name, Duration.parse(schedulerLock.lockAtMostFor()))) {
+            return null;
+        }
+        try {
+            return joinPoint.proceed();
+        } finally {
+            jobLockService.release(name, Duration.parse(schedulerLock.lockAtLeastFor()));
+        }
+    }
+}
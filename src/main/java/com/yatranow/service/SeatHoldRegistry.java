@@ -0,0 +1,270 @@
+package com.yatranow.service;
+
+import com.yatranow.dto.SeatHoldResponse;
+import com.yatranow.event.SchedulesDeletedEvent;
+import com.yatranow.event.SeatsBookedEvent;
+import com.yatranow.event.SeatsHeldEvent;
+import com.yatranow.event.SeatsReleasedEvent;
+import com.yatranow.exception.BadRequestException;
+import com.yatranow.exception.DuplicateBookingException;
+import com.yatranow.exception.ResourceNotFoundException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Short-lived seat reservations taken while a user is checking out. Seats
+ * are claimed with compare-and-set operations on concurrent maps; an expired
+ * hold is treated as absent and can be taken over by anyone. A user holds
+ * at most a fixed number of seats per schedule. A booking that names its
+ * hold consumes it in the booking transaction; the seats it did not book are
+ * released once that commits.
+ */
+@Component
+public class SeatHoldRegistry {
+
+    private final Duration ttl;
+    private final int maxSeatsPerUser;
+    private final ApplicationEventPublisher eventPublisher;
+
+    // scheduleId -> seatNumber -> hold
+    private final Map<Long, Map<String, Hold>> holdsBySchedule = new ConcurrentHashMap<>();
+    private final Map<String, Hold> holdsById = new ConcurrentHashMap<>();
+
+    public SeatHoldRegistry(@Value("${yatranow.seat-hold.ttl:PT5M}") Duration ttl,
+            @Value("${yatranow.seat-hold.max-seats-per-user:10}") int maxSeatsPerUser,
+            ApplicationEventPublisher eventPublisher) {
+        this.ttl = ttl;
+        this.maxSeatsPerUser = maxSeatsPerUser;
+        this.eventPublisher = eventPublisher;
+    }
+
+    public SeatHoldResponse hold(Long scheduleId, List<String> seatNumbers, Long userId) {
+        Instant now = Instant.now();
+        Hold hold = new Hold(UUID.randomUUID().toString(), userId, scheduleId, List.copyOf(seatNumbers),
+                now.plus(ttl));
+        Map<String, Hold> seats = holdsBySchedule.computeIfAbsent(scheduleId, id -> new ConcurrentHashMap<>());
+
+        // Claimed seats, each with the user's own live hold it displaced (null if none)
+        Map<String, Hold> claimed = new LinkedHashMap<>();
+        for (String seatNumber : hold.seatNumbers()) {
+            if (!claim(seats, seatNumber, hold, now, claimed)) {
+                undoClaims(seats, hold, claimed);
+                throw new DuplicateBookingException("Seat " + seatNumber + " is currently held by another user");
+            }
+        }
+
+        // Counted after claiming, so concurrent requests of one user cannot both slip under the cap
+        if (countHeldBy(seats, userId, now) > maxSeatsPerUser) {
+            undoClaims(seats, hold, claimed);
+            throw new BadRequestException("At most " + maxSeatsPerUser + " seats can be held per schedule");
+        }
+
+        holdsById.put(hold.holdId(), hold);
+        eventPublisher.publishEvent(new SeatsHeldEvent(scheduleId, hold.seatNumbers()));
+        return new SeatHoldResponse(hold.holdId(), scheduleId, hold.seatNumbers(), hold.expiresAt());
+    }
+
+    private boolean claim(Map<String, Hold> seats, String seatNumber, Hold hold, Instant now,
+            Map<String, Hold> claimed) {
+        while (true) {
+            Hold current = seats.putIfAbsent(seatNumber, hold);
+            if (current == null) {
+                claimed.put(seatNumber, null);
+                return true;
+            }
+            if (!current.isExpired(now) && !current.userId().equals(hold.userId())) {
+                return false;
+            }
+            // Expired, or our own older hold: take it over unless someone else got there first
+            if (seats.replace(seatNumber, current, hold)) {
+                claimed.put(seatNumber, current.isExpired(now) ? null : current);
+                return true;
+            }
+        }
+    }
+
+    // Gives every claimed seat back to the hold it was taken from, so a failed request leaves earlier holds intact
+    private static void undoClaims(Map<String, Hold> seats, Hold hold, Map<String, Hold> claimed) {
+        claimed.forEach((seat, previous) -> {
+            if (previous != null) {
+                seats.replace(seat, hold, previous);
+            } else {
+                seats.remove(seat, hold);
+            }
+        });
+    }
+
+    private static int countHeldBy(Map<String, Hold> seats, Long userId, Instant now) {
+        int count = 0;
+        for (Hold hold : seats.values()) {
+            if (hold.userId().equals(userId) && !hold.isExpired(now)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    public void release(String holdId, Long userId) {
+        Hold hold = holdsById.get(holdId);
+        if (hold == null || !hold.userId().equals(userId)) {
+            throw new ResourceNotFoundException("Hold not found");
+        }
+        release(hold);
+    }
+
+    private void release(Hold hold) {
+        holdsById.remove(hold.holdId(), hold);
+        Map<String, Hold> seats = holdsBySchedule.get(hold.scheduleId());
+        if (seats == null) {
+            return;
+        }
+        List<String> released = hold.seatNumbers().stream()
+                .filter(seat -> seats.remove(seat, hold))
+                .toList();
+        if (!released.isEmpty()) {
+            eventPublisher.publishEvent(new SeatsReleasedEvent(hold.scheduleId(), released));
+        }
+    }
+
+    // Called by bookings before they insert: without a hold the seats only must not be held by others
+    public void checkBookable(Long scheduleId, List<String> seatNumbers, Long userId, String holdId) {
+        if (holdId == null) {
+            checkNotHeldByOthers(scheduleId, seatNumbers, userId);
+        } else {
+            consume(holdId, scheduleId, seatNumbers, userId);
+        }
+    }
+
+    // Takes the hold out of use for the current transaction: gone once it commits, back if it rolls back
+    private void consume(String holdId, Long scheduleId, List<String> seatNumbers, Long userId) {
+        Hold hold = holdsById.get(holdId);
+        if (hold == null || !hold.userId().equals(userId) || !hold.scheduleId().equals(scheduleId)) {
+            throw new ResourceNotFoundException("Hold not found");
+        }
+        if (hold.isExpired(Instant.now())) {
+            throw new BadRequestException("Hold has expired");
+        }
+        for (String seatNumber : seatNumbers) {
+            if (!hold.seatNumbers().contains(seatNumber)) {
+                throw new BadRequestException("Seat " + seatNumber + " is not part of the hold");
+            }
+        }
+        // Only one booking gets the hold
+        if (!holdsById.remove(holdId, hold)) {
+            throw new ResourceNotFoundException("Hold not found");
+        }
+
+        List<String> unbooked = hold.seatNumbers().stream()
+                .filter(seat -> !seatNumbers.contains(seat))
+                .toList();
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            release(hold);
+            return;
+        }
+        if (!unbooked.isEmpty()) {
+            // Transactional listeners only see this if the booking commits
+            eventPublisher.publishEvent(new SeatsReleasedEvent(scheduleId, unbooked));
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_COMMITTED) {
+                    // Booked seats are dropped by onSeatsBooked
+                    Map<String, Hold> seats = holdsBySchedule.get(scheduleId);
+                    if (seats != null) {
+                        unbooked.forEach(seat -> seats.remove(seat, hold));
+                    }
+                } else {
+                    holdsById.putIfAbsent(holdId, hold);
+                }
+            }
+        });
+    }
+
+    // Throws if any of the seats is held by a different user
+    private void checkNotHeldByOthers(Long scheduleId, List<String> seatNumbers, Long userId) {
+        Map<String, Hold> seats = holdsBySchedule.get(scheduleId);
+        if (seats == null) {
+            return;
+        }
+        Instant now = Instant.now();
+        for (String seatNumber : seatNumbers) {
+            Hold hold = seats.get(seatNumber);
+            if (hold != null && !hold.isExpired(now) && !hold.userId().equals(userId)) {
+                throw new DuplicateBookingException("Seat " + seatNumber + " is currently held by another user");
+            }
+        }
+    }
+
+    public List<String> getHeldSeatNumbers(Long scheduleId) {
+        Map<String, Hold> seats = holdsBySchedule.get(scheduleId);
+        if (seats == null) {
+            return List.of();
+        }
+        Instant now = Instant.now();
+        List<String> held = new ArrayList<>();
+        seats.forEach((seat, hold) -> {
+            if (!hold.isExpired(now)) {
+                held.add(seat);
+            }
+        });
+        return held;
+    }
+
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onSeatsBooked(SeatsBookedEvent event) {
+        Map<String, Hold> seats = holdsBySchedule.get(event.scheduleId());
+        if (seats == null) {
+            return;
+        }
+        // A booked seat needs no hold, whoever held it
+        event.seatNumbers().forEach(seats::remove);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onSchedulesDeleted(SchedulesDeletedEvent event) {
+        event.scheduleIds().forEach(holdsBySchedule::remove);
+    }
+
+    @Scheduled(fixedDelayString = "${yatranow.seat-hold.sweep-interval-ms:30000}")
+    public void removeExpiredHolds() {
+        Instant now = Instant.now();
+        holdsById.values().removeIf(hold -> hold.isExpired(now));
+        // Per-schedule maps stay until the schedule is deleted, so a concurrent hold never lands in a dropped map
+        holdsBySchedule.forEach((scheduleId, seats) -> {
+            List<String> released = new ArrayList<>();
+            seats.forEach((seat, hold) -> {
+                if (hold.isExpired(now) && seats.remove(seat, hold)) {
+                    released.add(seat);
+                }
+            });
+            if (!released.isEmpty()) {
+                eventPublisher.publishEvent(new SeatsReleasedEvent(scheduleId, released));
+            }
+        });
+    }
+
+    private record Hold(String holdId, Long userId, Long scheduleId, List<String> seatNumbers, Instant expiresAt) {
+
+        boolean isExpired(Instant now) {
+            return !now.isBefore(expiresAt);
+        }
+    }
+}
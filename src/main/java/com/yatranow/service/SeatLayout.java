@@ -0,0 +1,84 @@
+package com.yatranow.service;
+
+import com.yatranow.entity.Seat;
+
+import java.util.*;
+
+/**
+ * Immutable seat plan of a vehicle: seat numbers in display order with their
+ * seat type. Templates are shared by every vehicle of the same bus type or
+ * train size; a vehicle only gets its own instance when it has overrides.
+ */
+public final class SeatLayout {
+
+    private final List<String> seatNumbers;
+    private final Seat.SeatType[] seatTypes;
+    private final Map<String, Integer> positions;
+
+    SeatLayout(List<String> seatNumbers, List<Seat.SeatType> seatTypes) {
+        this.seatNumbers = List.copyOf(seatNumbers);
+        this.seatTypes = seatTypes.toArray(new Seat.SeatType[0]);
+        Map<String, Integer> positions = new HashMap<>(seatNumbers.size() * 2);
+        for (int i = 0; i < seatNumbers.size(); i++) {
+            positions.put(seatNumbers.get(i), i);
+        }
+        this.positions = Collections.unmodifiableMap(positions);
+    }
+
+    public int size() {
+        return seatNumbers.size();
+    }
+
+    public List<String> getSeatNumbers() {
+        return seatNumbers;
+    }
+
+    public String seatNumberAt(int position) {
+        return seatNumbers.get(position);
+    }
+
+    // Position of the seat in the layout, or -1 if the vehicle has no such seat
+    public int positionOf(String seatNumber) {
+        Integer position = positions.get(seatNumber);
+        return position != null ? position : -1;
+    }
+
+    public boolean contains(String seatNumber) {
+        return positions.containsKey(seatNumber);
+    }
+
+    public Seat.SeatType seatTypeOf(String seatNumber) {
+        Integer position = positions.get(seatNumber);
+        return position != null ? seatTypes[position] : null;
+    }
+
+    // True if the stored seat row says nothing this layout does not already say
+    public boolean isRedundant(Seat seat) {
+        return seat.getSeatType() == seatTypeOf(seat.getSeatNumber())
+                && !Boolean.FALSE.equals(seat.getIsAvailable());
+    }
+
+    /**
+     * Applies per-vehicle seat rows on top of this layout: an unavailable seat is
+     * removed, a known seat takes the row's type and an unknown seat is appended.
+     * Returns this instance when there is nothing to apply.
+     */
+    public SeatLayout withOverrides(List<Seat> overrides) {
+        if (overrides.isEmpty()) {
+            return this;
+        }
+
+        Map<String, Seat.SeatType> merged = new LinkedHashMap<>();
+        for (int i = 0; i < seatNumbers.size(); i++) {
+            merged.put(seatNumbers.get(i), seatTypes[i]);
+        }
+        for (Seat seat : overrides) {
+            if (Boolean.FALSE.equals(seat.getIsAvailable())) {
+                merged.remove(seat.getSeatNumber());
+            } else {
+                merged.put(seat.getSeatNumber(), seat.getSeatType());
+            }
+        }
+        return new SeatLayout(new ArrayList<>(merged.keySet()), new ArrayList<>(merged.values()));
+    }
+}
@@ -0,0 +1,115 @@
+package com.yatranow.service;
+
+import com.yatranow.entity.Seat;
+import com.yatranow.entity.Vehicle;
+import com.yatranow.repository.SeatRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Shared seat layout templates. Every bus of a given BusType and every train
+ * with the same number of seats uses one immutable SeatLayout; the seats
+ * table only holds rows where a vehicle differs from its template.
+ */
+@Component
+@RequiredArgsConstructor
+public class SeatLayoutRegistry {
+
+    public static final int MAX_TRAIN_SEATS = 2000;
+
+    private static final Map<Vehicle.BusType, SeatLayout> BUS_LAYOUTS = new EnumMap<>(Vehicle.BusType.class);
+
+    static {
+        for (Vehicle.BusType busType : Vehicle.BusType.values()) {
+            BUS_LAYOUTS.put(busType, buildBusLayout(busType));
+        }
+    }
+
+    private final SeatRepository seatRepository;
+
+    // Train layouts differ only in size, so one template per seat count
+    private final Map<Integer, SeatLayout> trainLayouts = new ConcurrentHashMap<>();
+
+    public SeatLayout templateFor(Vehicle vehicle) {
+        if (vehicle.getVehicleType() == Vehicle.VehicleType.BUS && vehicle.getBusType() != null) {
+            return BUS_LAYOUTS.get(vehicle.getBusType());
+        }
+        return trainLayout(vehicle.getTotalSeats());
+    }
+
+    // Template plus the vehicle's own seat rows
+    public SeatLayout layoutFor(Vehicle vehicle) {
+        return templateFor(vehicle).withOverrides(seatRepository.findByVehicleId(vehicle.getId()));
+    }
+
+    private SeatLayout trainLayout(int totalSeats) {
+        if (totalSeats < 1 || totalSeats > MAX_TRAIN_SEATS) {
+            throw new IllegalArgumentException("Total seats must be between 1 and " + MAX_TRAIN_SEATS);
+        }
+        return trainLayouts.computeIfAbsent(totalSeats, count -> {
+            // Simple numbering for trains (e.g., S1-S100)
+            List<String> numbers = new ArrayList<>(count);
+            for (int i = 1; i <= count; i++) {
+                numbers.add("S" + i);
+            }
+            return new SeatLayout(numbers, repeat(Seat.SeatType.SEATER, count));
+        });
+    }
+
+    private static SeatLayout buildBusLayout(Vehicle.BusType busType) {
+        List<String> numbers = new ArrayList<>(busType.getSeatCount());
+        Seat.SeatType seatType = Seat.SeatType.SEATER;
+
+        switch (busType) {
+            case SUPER_LUXURY:
+                // 40 seats, 2x2 layout: 1A-10D
+                addRows(numbers, new char[] { 'A', 'B', 'C', 'D' }, 40);
+                break;
+
+            case DELUXE:
+                // 45 seats, 2x2 layout: 1A-12A
+                addRows(numbers, new char[] { 'A', 'B', 'C', 'D' }, 45);
+                break;
+
+            case SLEEPER:
+                // 36 seats, 2x1 sleeper layout: L1-L18, U1-U18
+                for (int i = 1; i <= 18; i++) {
+                    numbers.add("L" + i);
+                    numbers.add("U" + i);
+                }
+                seatType = Seat.SeatType.SLEEPER;
+                break;
+
+            case SEATER:
+                // 52 seats, 3x2 layout: 1A-11B
+                addRows(numbers, new char[] { 'A', 'B', 'C', 'D', 'E' }, 52);
+                break;
+        }
+
+        return new SeatLayout(numbers, repeat(seatType, numbers.size()));
+    }
+
+    private static void addRows(List<String> numbers, char[] columns, int seatCount) {
+        for (int row = 1; numbers.size() < seatCount; row++) {
+            for (char col : columns) {
+                numbers.add(row + String.valueOf(col));
+                if (numbers.size() >= seatCount)
+                    break;
+            }
+        }
+    }
+
+    private static List<Seat.SeatType> repeat(Seat.SeatType seatType, int count) {
+        List<Seat.SeatType> types = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            types.add(seatType);
+        }
+        return types;
+    }
+}
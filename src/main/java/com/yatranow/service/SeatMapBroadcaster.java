@@ -0,0 +1,292 @@
+package com.yatranow.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.yatranow.dto.SeatMapDelta;
+import com.yatranow.event.SchedulesDeletedEvent;
+import com.yatranow.event.SeatsBookedEvent;
+import com.yatranow.event.SeatsHeldEvent;
+import com.yatranow.event.SeatsReleasedEvent;
+import com.yatranow.exception.ResourceNotFoundException;
+import com.yatranow.repository.ScheduleRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Pushes seat-map changes to Server-Sent Event subscribers of a schedule.
+ * Each change is serialized into an SSE frame once and queued for every
+ * subscriber; a small bounded pool drains each subscriber's queue in order,
+ * so slow clients never hold up the booking that caused the change.
+ *
+ * A subscriber that falls more than a fixed number of frames behind, or
+ * whose send has been blocked longer than the send timeout, is disconnected;
+ * its client reconnects and starts again from a fresh snapshot.
+ */
+@Component
+@Slf4j
+public class SeatMapBroadcaster {
+
+    private static final Set<ResponseBodyEmitter.DataWithMediaType> HEARTBEAT = SseEmitter.event()
+            .comment("ping")
+            .build();
+
+    private final ScheduleRepository scheduleRepository;
+    private final ObjectMapper objectMapper;
+    private final long emitterTimeoutMs;
+    private final int maxPendingFrames;
+    private final long sendTimeoutNanos;
+    private final Map<Long, Set<Subscriber>> subscribers = new ConcurrentHashMap<>();
+    private final ThreadPoolExecutor sender;
+
+    public SeatMapBroadcaster(ScheduleRepository scheduleRepository, ObjectMapper objectMapper,
+            @Value("${yatranow.seat-stream.timeout-ms:1800000}") long emitterTimeoutMs,
+            @Value("${yatranow.seat-stream.threads:4}") int threads,
+            @Value("${yatranow.seat-stream.queue-capacity:1000}") int queueCapacity,
+            @Value("${yatranow.seat-stream.max-pending-frames:32}") int maxPendingFrames,
+            @Value("${yatranow.seat-stream.send-timeout-ms:10000}") long sendTimeoutMs) {
+        this.scheduleRepository = scheduleRepository;
+        this.objectMapper = objectMapper;
+        this.emitterTimeoutMs = emitterTimeoutMs;
+        this.maxPendingFrames = maxPendingFrames;
+        this.sendTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(sendTimeoutMs);
+
+        AtomicInteger threadCount = new AtomicInteger();
+        this.sender = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+                    Thread thread = new Thread(runnable, "seat-map-broadcaster-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    // The snapshot is the subscriber's first frame and is built on the sender pool after registration,
+    // so every change is either already in it or delivered after it
+    public SseEmitter subscribe(Long scheduleId, Supplier<SeatMapDelta> snapshot) {
+        if (!scheduleRepository.existsById(scheduleId)) {
+            throw new ResourceNotFoundException("Schedule not found");
+        }
+
+        SseEmitter emitter = new SseEmitter(emitterTimeoutMs);
+        Subscriber subscriber = new Subscriber(scheduleId, emitter);
+        Set<Subscriber> scheduleSubscribers = subscribers.computeIfAbsent(scheduleId,
+                id -> new CopyOnWriteArraySet<>());
+        scheduleSubscribers.add(subscriber);
+
+        Runnable remove = () -> unsubscribe(subscriber);
+        emitter.onCompletion(remove);
+        emitter.onTimeout(remove);
+        emitter.onError(error -> remove.run());
+
+        subscriber.enqueue(() -> frame("snapshot", snapshot.get()));
+        return emitter;
+    }
+
+    private void unsubscribe(Subscriber subscriber) {
+        subscribers.computeIfPresent(subscriber.scheduleId, (id, scheduleSubscribers) -> {
+            scheduleSubscribers.remove(subscriber);
+            return scheduleSubscribers.isEmpty() ? null : scheduleSubscribers;
+        });
+    }
+
+    // Runs after SeatOccupancyCache has applied the booking, see its @Order
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onSeatsBooked(SeatsBookedEvent event) {
+        publish(event.scheduleId(), new SeatMapDelta(event.scheduleId(), event.seatNumbers(), List.of(), List.of()));
+    }
+
+    @EventListener
+    public void onSeatsHeld(SeatsHeldEvent event) {
+        publish(event.scheduleId(), new SeatMapDelta(event.scheduleId(), List.of(), event.seatNumbers(), List.of()));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onSeatsReleased(SeatsReleasedEvent event) {
+        publish(event.scheduleId(), new SeatMapDelta(event.scheduleId(), List.of(), List.of(), event.seatNumbers()));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onSchedulesDeleted(SchedulesDeletedEvent event) {
+        for (Long scheduleId : event.scheduleIds()) {
+            Set<Subscriber> scheduleSubscribers = subscribers.remove(scheduleId);
+            if (scheduleSubscribers != null) {
+                Set<ResponseBodyEmitter.DataWithMediaType> frame = frame("deleted", Map.of("scheduleId", scheduleId));
+                scheduleSubscribers.forEach(subscriber -> {
+                    subscriber.enqueue(() -> frame);
+                    subscriber.enqueue(() -> {
+                        subscriber.emitter.complete();
+                        return null;
+                    });
+                });
+            }
+        }
+    }
+
+    private void publish(Long scheduleId, SeatMapDelta delta) {
+        Set<Subscriber> scheduleSubscribers = subscribers.get(scheduleId);
+        if (scheduleSubscribers == null || scheduleSubscribers.isEmpty()) {
+            return;
+        }
+        Set<ResponseBodyEmitter.DataWithMediaType> frame = frame("seats", delta);
+        scheduleSubscribers.forEach(subscriber -> subscriber.enqueue(() -> frame));
+    }
+
+    // Keeps idle connections open through proxies, drops subscribers that went away and
+    // disconnects those stuck in a send
+    @Scheduled(fixedDelayString = "${yatranow.seat-stream.heartbeat-ms:25000}")
+    public void sendHeartbeats() {
+        long now = System.nanoTime();
+        subscribers.values().forEach(scheduleSubscribers -> scheduleSubscribers.forEach(subscriber -> {
+            if (subscriber.isStuck(now)) {
+                disconnect(subscriber, "send timed out");
+            } else {
+                subscriber.enqueue(() -> HEARTBEAT);
+            }
+        }));
+    }
+
+    private Set<ResponseBodyEmitter.DataWithMediaType> frame(String name, Object payload) {
+        try {
+            return SseEmitter.event()
+                    .name(name)
+                    .data(objectMapper.writeValueAsString(payload))
+                    .build();
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize seat map event", e);
+        }
+    }
+
+    private void disconnect(Subscriber subscriber, String reason) {
+        if (!subscriber.closed.compareAndSet(false, true)) {
+            return;
+        }
+        log.debug("Disconnecting seat map subscriber of schedule {}: {}", subscriber.scheduleId, reason);
+        unsubscribe(subscriber);
+        subscriber.pending.clear();
+        subscriber.emitter.completeWithError(new IOException(reason));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        sender.shutdownNow();
+    }
+
+    /**
+     * One SSE connection with its queue of frames not yet sent. At most one
+     * pool task drains a subscriber at a time, which keeps its frames in order.
+     * A supplier returning null sends nothing.
+     */
+    private final class Subscriber {
+
+        final Long scheduleId;
+        final SseEmitter emitter;
+        final Queue<Supplier<Set<ResponseBodyEmitter.DataWithMediaType>>> pending = new ConcurrentLinkedQueue<>();
+        final AtomicInteger pendingCount = new AtomicInteger();
+        final AtomicBoolean draining = new AtomicBoolean();
+        final AtomicBoolean closed = new AtomicBoolean();
+        // System.nanoTime() when the current send started, 0 while not sending
+        final AtomicLong sendingSince = new AtomicLong();
+
+        Subscriber(Long scheduleId, SseEmitter emitter) {
+            this.scheduleId = scheduleId;
+            this.emitter = emitter;
+        }
+
+        void enqueue(Supplier<Set<ResponseBodyEmitter.DataWithMediaType>> frame) {
+            if (closed.get()) {
+                return;
+            }
+            if (pendingCount.incrementAndGet() > maxPendingFrames) {
+                disconnect(this, "too far behind");
+                return;
+            }
+            pending.add(frame);
+            scheduleDrain();
+        }
+
+        boolean isStuck(long now) {
+            long since = sendingSince.get();
+            return since != 0 && now - since > sendTimeoutNanos;
+        }
+
+        private void scheduleDrain() {
+            if (!draining.compareAndSet(false, true)) {
+                return;
+            }
+            try {
+                sender.execute(this::drain);
+            } catch (RejectedExecutionException e) {
+                draining.set(false);
+                disconnect(this, "broadcaster queue is full");
+            }
+        }
+
+        private void drain() {
+            try {
+                Supplier<Set<ResponseBodyEmitter.DataWithMediaType>> next;
+                while ((next = pending.poll()) != null) {
+                    pendingCount.decrementAndGet();
+                    if (!send(next)) {
+                        unsubscribe(this);
+                        pending.clear();
+                        return;
+                    }
+                }
+            } finally {
+                draining.set(false);
+            }
+            // A frame queued after the last poll but before the flag was cleared
+            if (!pending.isEmpty()) {
+                scheduleDrain();
+            }
+        }
+
+        private boolean send(Supplier<Set<ResponseBodyEmitter.DataWithMediaType>> next) {
+            Set<ResponseBodyEmitter.DataWithMediaType> frame;
+            try {
+                frame = next.get();
+            } catch (RuntimeException e) {
+                log.error("Failed to build seat map frame for schedule {}: {}", scheduleId, e.getMessage());
+                emitter.completeWithError(e);
+                return false;
+            }
+            if (frame == null) {
+                return true;
+            }
+
+            sendingSince.set(System.nanoTime());
+            try {
+                emitter.send(frame);
+                return true;
+            } catch (IOException | IllegalStateException e) {
+                log.debug("Dropping seat map subscriber: {}", e.getMessage());
+                return false;
+            } finally {
+                sendingSince.set(0);
+            }
+        }
+    }
+}
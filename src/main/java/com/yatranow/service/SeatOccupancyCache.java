@@ -0,0 +1,218 @@
+package com.yatranow.service;
+
+import com.yatranow.event.SchedulesDeletedEvent;
+import com.yatranow.event.SeatsBookedEvent;
+import com.yatranow.repository.BookingRepository;
+import com.yatranow.repository.ScheduleRepository;
+import com.yatranow.repository.VehicleRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Booked seats per schedule, kept as a bitmap over the vehicle's seat layout
+ * (bit i = i-th seat of the layout). A schedule is loaded from the database
+ * the first time its seat map is requested; after that reads are served from
+ * memory and local bookings set bits once their transaction commits.
+ *
+ * Bookings made through other instances raise no local event, so an entry is
+ * reloaded once it is older than the TTL, and idle entries are swept. Vehicle
+ * layouts, which include the vehicle's seat overrides, expire the same way.
+ *
+ * Loads run outside the map's locks. A local booking for a schedule whose
+ * load is in flight bumps a version counter, and the load is discarded and
+ * repeated rather than installed without that booking.
+ */
+@Component
+public class SeatOccupancyCache {
+
+    private final SeatLayoutRegistry seatLayoutRegistry;
+    private final VehicleRepository vehicleRepository;
+    private final ScheduleRepository scheduleRepository;
+    private final BookingRepository bookingRepository;
+    private static final int MAX_LOAD_ATTEMPTS = 3;
+    private static final int VERSION_STRIPES = 256;
+
+    private final long ttlNanos;
+
+    private final Map<Long, VehicleLayout> layoutsByVehicle = new ConcurrentHashMap<>();
+    private final Map<Long, Occupancy> occupancyBySchedule = new ConcurrentHashMap<>();
+    // Bumped by every local booking of a schedule hashing to the stripe
+    private final AtomicLongArray versions = new AtomicLongArray(VERSION_STRIPES);
+
+    public SeatOccupancyCache(SeatLayoutRegistry seatLayoutRegistry, VehicleRepository vehicleRepository,
+            ScheduleRepository scheduleRepository, BookingRepository bookingRepository,
+            @Value("${yatranow.seat-occupancy.ttl:PT30S}") Duration ttl) {
+        this.seatLayoutRegistry = seatLayoutRegistry;
+        this.vehicleRepository = vehicleRepository;
+        this.scheduleRepository = scheduleRepository;
+        this.bookingRepository = bookingRepository;
+        this.ttlNanos = ttl.toNanos();
+    }
+
+    public List<String> getBookedSeatNumbers(Long scheduleId) {
+        Occupancy occupancy = occupancy(scheduleId);
+        return occupancy != null ? occupancy.bookedSeatNumbers() : new ArrayList<>();
+    }
+
+    // Seat layout of the schedule's vehicle, or null if the schedule does not exist
+    public SeatLayout getLayout(Long scheduleId) {
+        Occupancy occupancy = occupancy(scheduleId);
+        return occupancy != null ? occupancy.layout : null;
+    }
+
+    // Drops entries nobody has asked for within the TTL
+    @Scheduled(fixedDelayString = "${yatranow.seat-occupancy.sweep-interval-ms:60000}")
+    public void sweepExpired() {
+        long now = System.nanoTime();
+        occupancyBySchedule.values().removeIf(occupancy -> occupancy.isExpired(now, ttlNanos));
+        layoutsByVehicle.values().removeIf(layout -> now - layout.loadedAtNanos() > ttlNanos);
+    }
+
+    private Occupancy occupancy(Long scheduleId) {
+        Occupancy occupancy = occupancyBySchedule.get(scheduleId);
+        if (occupancy != null && !occupancy.isExpired(System.nanoTime(), ttlNanos)) {
+            return occupancy;
+        }
+
+        int stripe = stripeOf(scheduleId);
+        for (int attempt = 1; ; attempt++) {
+            long version = versions.get(stripe);
+            Occupancy loaded = load(scheduleId);
+            if (loaded == null) {
+                occupancyBySchedule.remove(scheduleId);
+                return null;
+            }
+
+            // Checked under the entry's lock, which onSeatsBooked also takes for the same schedule
+            boolean[] installed = new boolean[1];
+            Occupancy result = occupancyBySchedule.compute(scheduleId, (id, current) -> {
+                if (current != null && !current.isExpired(System.nanoTime(), ttlNanos)) {
+                    // Another reader installed a fresh entry meanwhile
+                    installed[0] = true;
+                    return current;
+                }
+                if (versions.get(stripe) != version) {
+                    return current;
+                }
+                installed[0] = true;
+                return loaded;
+            });
+            if (installed[0]) {
+                return result;
+            }
+            if (attempt == MAX_LOAD_ATTEMPTS) {
+                // Bookings keep arriving: answer from this load without caching it
+                return loaded;
+            }
+        }
+    }
+
+    private Occupancy load(Long scheduleId) {
+        Long vehicleId = scheduleRepository.findVehicleIdById(scheduleId).orElse(null);
+        if (vehicleId == null) {
+            return null;
+        }
+        SeatLayout layout = layoutOf(vehicleId);
+        if (layout == null) {
+            return null;
+        }
+        Occupancy occupancy = new Occupancy(layout);
+        occupancy.mark(bookingRepository.findSeatNumbersByScheduleId(scheduleId));
+        return occupancy;
+    }
+
+    // Vehicles without overrides all map to the same shared template instance
+    private SeatLayout layoutOf(Long vehicleId) {
+        VehicleLayout cached = layoutsByVehicle.get(vehicleId);
+        if (cached != null && System.nanoTime() - cached.loadedAtNanos() <= ttlNanos) {
+            return cached.layout();
+        }
+        SeatLayout layout = vehicleRepository.findById(vehicleId)
+                .map(seatLayoutRegistry::layoutFor)
+                .orElse(null);
+        if (layout == null) {
+            layoutsByVehicle.remove(vehicleId);
+            return null;
+        }
+        layoutsByVehicle.put(vehicleId, new VehicleLayout(layout, System.nanoTime()));
+        return layout;
+    }
+
+    private static int stripeOf(Long scheduleId) {
+        return Long.hashCode(scheduleId) & (VERSION_STRIPES - 1);
+    }
+
+    // Ahead of other listeners so seat map snapshots taken afterwards include the booking
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onSeatsBooked(SeatsBookedEvent event) {
+        occupancyBySchedule.compute(event.scheduleId(), (id, occupancy) -> {
+            versions.incrementAndGet(stripeOf(id));
+            if (occupancy != null) {
+                occupancy.mark(event.seatNumbers());
+            }
+            return occupancy;
+        });
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onSchedulesDeleted(SchedulesDeletedEvent event) {
+        event.scheduleIds().forEach(occupancyBySchedule::remove);
+    }
+
+    private record VehicleLayout(SeatLayout layout, long loadedAtNanos) {
+    }
+
+    private static final class Occupancy {
+
+        final SeatLayout layout;
+        final AtomicLongArray bits;
+        final long loadedAtNanos = System.nanoTime();
+        // Booked seat numbers that are not part of the vehicle layout
+        final Set<String> unmapped = ConcurrentHashMap.newKeySet();
+
+        Occupancy(SeatLayout layout) {
+            this.layout = layout;
+            this.bits = new AtomicLongArray((layout.size() + 63) / 64);
+        }
+
+        boolean isExpired(long now, long ttlNanos) {
+            return now - loadedAtNanos > ttlNanos;
+        }
+
+        void mark(Collection<String> seatNumbers) {
+            for (String seatNumber : seatNumbers) {
+                int position = layout.positionOf(seatNumber);
+                if (position < 0) {
+                    unmapped.add(seatNumber);
+                    continue;
+                }
+                long mask = 1L << (position & 63);
+                bits.getAndAccumulate(position >>> 6, mask, (word, m) -> word | m);
+            }
+        }
+
+        List<String> bookedSeatNumbers() {
+            List<String> booked = new ArrayList<>();
+            for (int word = 0; word < bits.length(); word++) {
+                long value = bits.get(word);
+                while (value != 0) {
+                    int bit = Long.numberOfTrailingZeros(value);
+                    booked.add(layout.seatNumberAt((word << 6) + bit));
+                    value &= value - 1;
+                }
+            }
+            booked.addAll(unmapped);
+            return booked;
+        }
+    }
+}
@@ -1,20 +1,35 @@
 package com.yatranow.service;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
 import com.yatranow.dto.*;
 import com.yatranow.entity.*;
+import com.yatranow.event.SeatsBookedEvent;
+import com.yatranow.exception.BadRequestException;
 import com.yatranow.exception.DuplicateBookingException;
 import com.yatranow.exception.ResourceNotFoundException;
+import com.yatranow.exception.SeatsUnavailableException;
 import com.yatranow.repository.*;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.HashSet;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Set;
+import java.util.stream.Stream;
 
 import java.time.LocalDate;
+import java.time.LocalTime;
 
 @Service
 @RequiredArgsConstructor
@@ -26,60 +41,132 @@ public class UserService {
     private final ImageService imageService;
     private final VehicleRepository vehicleRepository;
     private final RouteRepository routeRepository;
-    private final OwnerRepository ownerRepository;
+    private final ScheduleSearchIndex scheduleSearchIndex;
+    private final SeatOccupancyCache seatOccupancyCache;
+    private final SeatHoldRegistry seatHoldRegistry;
+    private final OwnerStatsService ownerStatsService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ObjectMapper objectMapper;
+
+    private static final int NDJSON_FLUSH_EVERY = 200;
 
     public Page<SearchResponse> searchVehicles(SearchRequest request, Pageable pageable) {
-        Page<Schedule> schedules = scheduleRepository.searchSchedules(
+        if (scheduleSearchIndex.covers(request.date())) {
+            return scheduleSearchIndex.search(request.fromLocation(), request.toLocation(), request.date(), pageable);
+        }
+
+        return scheduleRepository.searchSchedules(
                 request.fromLocation(),
                 request.toLocation(),
                 request.date(),
                 pageable);
+    }
 
-        return schedules.map(this::convertToSearchResponse);
+    public CursorPage<SearchResponse> scrollVehicles(SearchRequest request, String sortBy, String cursorToken,
+            int size) {
+        sortBy = SearchCursor.normalizeSortBy(sortBy);
+        SearchCursor cursor = cursorToken != null && !cursorToken.isBlank() ? SearchCursor.decode(cursorToken) : null;
+        if (cursor != null && !cursor.sortBy().equals(sortBy)) {
+            throw new BadRequestException("Cursor does not match the requested sort order");
+        }
+
+        // Fetch one extra row to learn whether another page exists
+        List<SearchResponse> rows;
+        if (scheduleSearchIndex.covers(request.date())) {
+            rows = scheduleSearchIndex.searchAfter(request.fromLocation(), request.toLocation(), request.date(),
+                    sortBy, cursor, size + 1);
+        } else if (SearchCursor.SORT_BY_DEPARTURE_TIME.equals(sortBy)) {
+            rows = scheduleRepository.searchSchedulesAfterDepartureTime(
+                    request.fromLocation(),
+                    request.toLocation(),
+                    request.date(),
+                    cursor != null ? cursor.lastDepartureTime() : LocalTime.MIN,
+                    cursor != null ? cursor.lastScheduleId() : 0L,
+                    Limit.of(size + 1));
+        } else {
+            rows = scheduleRepository.searchSchedulesAfterPrice(
+                    request.fromLocation(),
+                    request.toLocation(),
+                    request.date(),
+                    cursor != null ? cursor.lastPrice() : -1.0,
+                    cursor != null ? cursor.lastScheduleId() : 0L,
+                    Limit.of(size + 1));
+        }
+
+        boolean hasNext = rows.size() > size;
+        List<SearchResponse> content = hasNext ? rows.subList(0, size) : rows;
+        String nextCursor = hasNext ? SearchCursor.after(sortBy, content.get(content.size() - 1)).encode() : null;
+        return new CursorPage<>(content, nextCursor, hasNext);
     }
 
     public List<SearchResponse> getAllSchedules() {
         // Only return schedules from today onwards
-        List<Schedule> schedules = scheduleRepository.findByScheduleDateGreaterThanEqual(LocalDate.now());
-        return schedules.stream()
-                .map(this::convertToSearchResponse)
-                .collect(Collectors.toList());
+        return scheduleRepository.findSearchResponsesFrom(LocalDate.now());
+    }
+
+    // Writes upcoming schedules as newline-delimited JSON while they are read from the database
+    @Transactional(readOnly = true)
+    public void writeAllSchedulesAsNdjson(OutputStream out) throws IOException {
+        ObjectWriter writer = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        JsonGenerator generator = objectMapper.getFactory().createGenerator(out);
+        generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        generator.setRootValueSeparator(null);
+
+        try (Stream<SearchResponse> rows = scheduleRepository.streamSearchResponsesFrom(LocalDate.now())) {
+            int written = 0;
+            for (SearchResponse row : (Iterable<SearchResponse>) rows::iterator) {
+                writer.writeValue(generator, row);
+                generator.writeRaw('\n');
+                if (++written % NDJSON_FLUSH_EVERY == 0) {
+                    generator.flush();
+                }
+            }
+        }
+        generator.close();
     }
 
+    // Booked seats plus seats currently held by someone in checkout
     public List<String> getBookedSeatNumbers(Long scheduleId) {
-        List<Booking> bookings = bookingRepository.findByScheduleId(scheduleId);
-        return bookings.stream()
-                .map(Booking::getSeatNumber)
-                .collect(Collectors.toList());
+        List<String> unavailable = seatOccupancyCache.getBookedSeatNumbers(scheduleId);
+        List<String> held = seatHoldRegistry.getHeldSeatNumbers(scheduleId);
+        if (!held.isEmpty()) {
+            Set<String> booked = new HashSet<>(unavailable);
+            held.stream().filter(seat -> !booked.contains(seat)).forEach(unavailable::add);
+        }
+        return unavailable;
     }
 
-    private SearchResponse convertToSearchResponse(Schedule schedule) {
-        Vehicle vehicle = vehicleRepository.findById(schedule.getVehicleId())
-                .orElseThrow(() -> new ResourceNotFoundException("Vehicle not found"));
+    public SeatMapDelta getSeatMapSnapshot(Long scheduleId) {
+        return new SeatMapDelta(
+                scheduleId,
+                seatOccupancyCache.getBookedSeatNumbers(scheduleId),
+                seatHoldRegistry.getHeldSeatNumbers(scheduleId),
+                List.of());
+    }
 
-        Route route = routeRepository.findById(schedule.getRouteId())
-                .orElseThrow(() -> new ResourceNotFoundException("Route not found"));
+    public SeatHoldResponse holdSeats(SeatHoldRequest request, Long userId) {
+        SeatLayout layout = seatOccupancyCache.getLayout(request.scheduleId());
+        if (layout == null) {
+            throw new ResourceNotFoundException("Schedule not found");
+        }
+        for (String seatNumber : request.seatNumbers()) {
+            if (!layout.contains(seatNumber)) {
+                throw new BadRequestException("Seat " + seatNumber + " does not exist on this vehicle");
+            }
+        }
 
-        Owner owner = ownerRepository.findById(vehicle.getOwnerId())
-                .orElseThrow(() -> new ResourceNotFoundException("Owner not found"));
+        Set<String> booked = new HashSet<>(seatOccupancyCache.getBookedSeatNumbers(request.scheduleId()));
+        for (String seatNumber : request.seatNumbers()) {
+            if (booked.contains(seatNumber)) {
+                throw new DuplicateBookingException("Seat " + seatNumber + " is already booked");
+            }
+        }
 
-        return new SearchResponse(
-                schedule.getId(),
-                vehicle.getId(),
-                vehicle.getName(),
-                vehicle.getVehicleNumber(),
-                vehicle.getVehicleType().name(),
-                vehicle.getBusType() != null ? vehicle.getBusType().name() : "N/A",
-                route.getFromLocation(),
-                route.getToLocation(),
-                schedule.getScheduleDate(),
-                schedule.getDepartureTime(),
-                schedule.getArrivalTime(),
-                schedule.getPrice(),
-                schedule.getAvailableSeats(),
-                owner.getId(),
-                owner.getOwnerName(),
-                owner.getAgencyName());
+        return seatHoldRegistry.hold(request.scheduleId(), request.seatNumbers(), userId);
+    }
+
+    public void releaseHold(String holdId, Long userId) {
+        seatHoldRegistry.release(holdId, userId);
     }
 
     @Transactional
@@ -88,9 +175,9 @@ public class UserService {
         Schedule schedule = scheduleRepository.findById(request.scheduleId())
                 .orElseThrow(() -> new ResourceNotFoundException("Schedule not found"));
 
-        // Check for available seats
+        // Fail fast when sold out; the conditional decrement below is the authoritative check
         if (schedule.getAvailableSeats() <= 0) {
-            throw new IllegalStateException("No seats available for this schedule");
+            throw new SeatsUnavailableException("No seats available for this schedule");
         }
 
         // Prevent double booking
@@ -98,6 +185,10 @@ public class UserService {
             throw new DuplicateBookingException("This seat is already booked");
         }
 
+        // Seats held by another user in checkout cannot be booked until the hold expires
+        seatHoldRegistry.checkBookable(request.scheduleId(), List.of(request.seatNumber()), userId,
+                request.holdId());
+
         // Create booking
         Booking booking = new Booking();
         booking.setUserId(userId);
@@ -108,16 +199,87 @@ public class UserService {
         booking.setPassengerGender(request.passengerGender());
         booking.setStatus(Booking.BookingStatus.CONFIRMED);
 
-        booking = bookingRepository.save(booking);
+        try {
+            booking = bookingRepository.saveAndFlush(booking);
+        } catch (DataIntegrityViolationException e) {
+            // Lost the race for this seat against a concurrent booking
+            throw new DuplicateBookingException("This seat is already booked");
+        }
 
-        // Update available seats
-        schedule.setAvailableSeats(schedule.getAvailableSeats() - 1);
-        scheduleRepository.save(schedule);
+        // Update available seats in a single conditional UPDATE, done last so the
+        // schedule row lock is only held until commit
+        if (scheduleRepository.decrementAvailableSeats(schedule.getId(), 1) == 0) {
+            throw new SeatsUnavailableException("No seats available for this schedule");
+        }
+
+        ownerStatsService.recordSeatsSold(schedule.getId(), 1);
+
+        eventPublisher.publishEvent(new SeatsBookedEvent(schedule.getId(), userId, List.of(booking.getSeatNumber())));
 
         // Build response
         return buildBookingResponse(booking, schedule);
     }
 
+    // Books several seats on one schedule in a single transaction: all of them or none
+    @Transactional
+    public List<BookingResponse> bookGroup(GroupBookingRequest request, Long userId) {
+        Schedule schedule = scheduleRepository.findById(request.scheduleId())
+                .orElseThrow(() -> new ResourceNotFoundException("Schedule not found"));
+
+        List<String> seatNumbers = request.passengers().stream()
+                .map(GroupBookingRequest.Passenger::seatNumber)
+                .toList();
+        if (new HashSet<>(seatNumbers).size() != seatNumbers.size()) {
+            throw new BadRequestException("Each passenger must have a different seat");
+        }
+
+        if (schedule.getAvailableSeats() < seatNumbers.size()) {
+            throw new SeatsUnavailableException("Not enough seats available for this schedule");
+        }
+
+        // Check every requested seat with one query
+        List<String> alreadyBooked = bookingRepository.findBookedSeatNumbers(schedule.getId(), seatNumbers);
+        if (!alreadyBooked.isEmpty()) {
+            throw new DuplicateBookingException("Seats already booked: " + String.join(", ", alreadyBooked));
+        }
+        seatHoldRegistry.checkBookable(schedule.getId(), seatNumbers, userId, request.holdId());
+
+        List<Booking> bookings = request.passengers().stream().map(passenger -> {
+            Booking booking = new Booking();
+            booking.setUserId(userId);
+            booking.setScheduleId(schedule.getId());
+            booking.setSeatNumber(passenger.seatNumber());
+            booking.setPassengerName(passenger.passengerName());
+            booking.setPassengerAge(passenger.passengerAge());
+            booking.setPassengerGender(passenger.passengerGender());
+            booking.setStatus(Booking.BookingStatus.CONFIRMED);
+            return booking;
+        }).toList();
+
+        try {
+            bookingRepository.insertAll(bookings);
+        } catch (DataIntegrityViolationException e) {
+            throw new DuplicateBookingException("One or more seats were booked by someone else");
+        }
+
+        if (scheduleRepository.decrementAvailableSeats(schedule.getId(), bookings.size()) == 0) {
+            throw new SeatsUnavailableException("Not enough seats available for this schedule");
+        }
+
+        ownerStatsService.recordSeatsSold(schedule.getId(), bookings.size());
+
+        eventPublisher.publishEvent(new SeatsBookedEvent(schedule.getId(), userId, seatNumbers));
+
+        Vehicle vehicle = vehicleRepository.findById(schedule.getVehicleId())
+                .orElseThrow(() -> new ResourceNotFoundException("Vehicle not found"));
+        Route route = routeRepository.findById(schedule.getRouteId())
+                .orElseThrow(() -> new ResourceNotFoundException("Route not found"));
+
+        return bookings.stream()
+                .map(booking -> buildBookingResponse(booking, schedule, vehicle, route))
+                .toList();
+    }
+
     private BookingResponse buildBookingResponse(Booking booking, Schedule schedule) {
         Vehicle vehicle = vehicleRepository.findById(schedule.getVehicleId())
                 .orElseThrow(() -> new ResourceNotFoundException("Vehicle not found"));
@@ -125,6 +287,10 @@ public class UserService {
         Route route = routeRepository.findById(schedule.getRouteId())
                 .orElseThrow(() -> new ResourceNotFoundException("Route not found"));
 
+        return buildBookingResponse(booking, schedule, vehicle, route);
+    }
+
+    private BookingResponse buildBookingResponse(Booking booking, Schedule schedule, Vehicle vehicle, Route route) {
         return new BookingResponse(
                 booking.getId(),
                 schedule.getId(),
@@ -136,6 +302,7 @@ public class UserService {
                 vehicle.getVehicleNumber(),
                 route.getFromLocation(),
                 route.getToLocation(),
+                schedule.getScheduleDate(),
                 schedule.getDepartureTime().toString(),
                 schedule.getArrivalTime().toString(),
                 schedule.getPrice(),
@@ -143,16 +310,34 @@ public class UserService {
                 booking.getStatus().name());
     }
 
-    public List<BookingResponse> getMyBookings(Long userId) {
-        List<Booking> bookings = bookingRepository.findByUserId(userId);
+    public CursorPage<BookingResponse> getMyBookings(Long userId, String scope, String cursorToken, int size) {
+        scope = BookingCursor.normalizeScope(scope);
+        BookingCursor cursor = cursorToken != null && !cursorToken.isBlank() ? BookingCursor.decode(cursorToken) : null;
+        if (cursor != null && !cursor.scope().equals(scope)) {
+            throw new BadRequestException("Cursor does not match the requested scope");
+        }
 
-        return bookings.stream()
-                .map(booking -> {
-                    Schedule schedule = scheduleRepository.findById(booking.getScheduleId())
-                            .orElseThrow(() -> new ResourceNotFoundException("Schedule not found"));
-                    return buildBookingResponse(booking, schedule);
-                })
-                .collect(Collectors.toList());
+        // One joined query per page; fetch one extra row to learn whether another page exists
+        LocalDate today = LocalDate.now();
+        List<BookingResponse> rows;
+        if (BookingCursor.SCOPE_PAST.equals(scope)) {
+            rows = bookingRepository.findPastBookingsAfter(userId, today,
+                    cursor != null ? cursor.lastScheduleDate() : today,
+                    cursor != null ? cursor.lastDepartureTime() : LocalTime.MIN,
+                    cursor != null ? cursor.lastBookingId() : 0L,
+                    Limit.of(size + 1));
+        } else {
+            rows = bookingRepository.findUpcomingBookingsAfter(userId, today,
+                    cursor != null ? cursor.lastScheduleDate() : today.minusDays(1),
+                    cursor != null ? cursor.lastDepartureTime() : LocalTime.MIN,
+                    cursor != null ? cursor.lastBookingId() : 0L,
+                    Limit.of(size + 1));
+        }
+
+        boolean hasNext = rows.size() > size;
+        List<BookingResponse> content = hasNext ? rows.subList(0, size) : rows;
+        String nextCursor = hasNext ? BookingCursor.after(scope, content.get(content.size() - 1)).encode() : null;
+        return new CursorPage<>(content, nextCursor, hasNext);
     }
 
     @Transactional
@@ -163,13 +348,13 @@ public class UserService {
         }
 
         // Process optional image
-        byte[] complaintImageBytes = imageService.processImageOptional(request.getComplaintImage());
+        Long complaintImageId = imageService.storeImageOptional(request.getComplaintImage());
 
         Complaint complaint = new Complaint();
         complaint.setUserId(userId);
         complaint.setVehicleId(request.getVehicleId());
         complaint.setComplaintText(request.getComplaintText());
-        complaint.setComplaintImage(complaintImageBytes);
+        complaint.setComplaintImageId(complaintImageId);
 
         return complaintRepository.save(complaint);
     }
@@ -0,0 +1,267 @@
+package com.yatranow.service;
+
+import com.yatranow.entity.Schedule;
+import com.yatranow.event.SchedulesDeletedEvent;
+import com.yatranow.exception.ResourceNotFoundException;
+import com.yatranow.repository.ScheduleRepository;
+import com.yatranow.repository.VehicleRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Per-vehicle timeline of scheduled trips, used to stop a vehicle from being
+ * put on two trips at once. Each timeline is sorted by departure date-time
+ * and remembers its longest trip, so an overlap check only looks at trips
+ * departing in [start - longest, end) instead of every schedule of the
+ * vehicle.
+ *
+ * A vehicle's timeline is loaded on first use. Trips created by other
+ * instances or written around JPA are not announced, so a reservation first
+ * takes a row lock on the vehicle, which serializes schedule creation for it
+ * across instances, and re-reads the vehicle's trips around the candidate
+ * dates with a locking read, which sees the latest committed rows whatever
+ * the transaction's snapshot. New trips are reserved together with the check,
+ * so concurrent requests cannot both claim the same slot; the reservation is
+ * dropped again if the creating transaction rolls back.
+ */
+@Component
+@RequiredArgsConstructor
+public class VehicleScheduleIndex {
+
+    private final ScheduleRepository scheduleRepository;
+    private final VehicleRepository vehicleRepository;
+
+    private final Map<Long, Timeline> timelinesByVehicle = new ConcurrentHashMap<>();
+    private final Map<Long, Long> vehicleBySchedule = new ConcurrentHashMap<>();
+    private final AtomicLong sequence = new AtomicLong();
+
+    /**
+     * Checks the candidates against the vehicle's trips and each other. Without
+     * partial, nothing is reserved if any candidate conflicts; with partial, the
+     * non-conflicting candidates are reserved. Returns the conflicting candidates.
+     * Must run in the transaction that inserts the schedules; callers should
+     * take the vehicle lock as that transaction's first statement.
+     */
+    public List<Schedule> reserve(Long vehicleId, List<Schedule> candidates, boolean partial) {
+        if (candidates.isEmpty()) {
+            return List.of();
+        }
+        // Already held when the caller locked the vehicle first
+        vehicleRepository.lockById(vehicleId)
+                .orElseThrow(() -> new ResourceNotFoundException("Vehicle not found"));
+
+        Timeline timeline = timelinesByVehicle.computeIfAbsent(vehicleId, this::load);
+        // A trip never lasts past the next day, so only trips departing from the day before the
+        // first candidate to the day after the last one can overlap
+        LocalDate fromDate = candidates.stream().map(Schedule::getScheduleDate).min(Comparator.naturalOrder())
+                .orElseThrow().minusDays(1);
+        LocalDate toDate = candidates.stream().map(Schedule::getScheduleDate).max(Comparator.naturalOrder())
+                .orElseThrow().plusDays(1);
+        List<Schedule> stored = scheduleRepository.lockByVehicleIdAndScheduleDateBetween(vehicleId, fromDate,
+                toDate);
+
+        List<Entry> reserved = new ArrayList<>();
+        List<Schedule> conflicts = new ArrayList<>();
+
+        synchronized (timeline) {
+            resync(vehicleId, timeline, stored, fromDate, toDate);
+            for (Schedule candidate : candidates) {
+                Entry entry = new Entry(candidate, sequence.incrementAndGet());
+                if (timeline.overlaps(entry)) {
+                    conflicts.add(candidate);
+                } else {
+                    timeline.add(entry);
+                    reserved.add(entry);
+                }
+            }
+
+            if (!conflicts.isEmpty() && !partial) {
+                reserved.forEach(timeline::remove);
+                return conflicts;
+            }
+        }
+
+        afterCompletion(vehicleId, timeline, reserved);
+        return conflicts;
+    }
+
+    // Makes the timeline match the stored trips departing between the two dates. Only ever given the
+    // result of the locking read: while the vehicle lock is held no other creation is in flight, so a
+    // known trip missing from it really was deleted
+    private void resync(Long vehicleId, Timeline timeline, List<Schedule> stored, LocalDate fromDate,
+            LocalDate toDate) {
+        Map<Long, Schedule> storedById = new HashMap<>();
+        stored.forEach(schedule -> storedById.put(schedule.getId(), schedule));
+
+        // Known trips deleted elsewhere go; entries without an id are reservations still in flight
+        Set<Long> known = new HashSet<>();
+        List<Entry> window = new ArrayList<>(timeline.entries.subSet(
+                new Entry(fromDate.atStartOfDay()), true, new Entry(toDate.plusDays(1).atStartOfDay()), false));
+        for (Entry entry : window) {
+            Long scheduleId = entry.schedule.getId();
+            if (scheduleId == null) {
+                continue;
+            }
+            if (storedById.containsKey(scheduleId)) {
+                known.add(scheduleId);
+            } else {
+                timeline.remove(entry);
+                timeline.byScheduleId.remove(scheduleId, entry);
+                vehicleBySchedule.remove(scheduleId);
+            }
+        }
+
+        storedById.forEach((scheduleId, schedule) -> {
+            if (!known.contains(scheduleId)) {
+                Entry entry = new Entry(schedule, sequence.incrementAndGet());
+                timeline.add(entry);
+                timeline.byScheduleId.put(scheduleId, entry);
+                vehicleBySchedule.put(scheduleId, vehicleId);
+            }
+        });
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onSchedulesDeleted(SchedulesDeletedEvent event) {
+        for (Long scheduleId : event.scheduleIds()) {
+            Long vehicleId = vehicleBySchedule.remove(scheduleId);
+            Timeline timeline = vehicleId != null ? timelinesByVehicle.get(vehicleId) : null;
+            if (timeline != null) {
+                synchronized (timeline) {
+                    timeline.removeSchedule(scheduleId);
+                }
+            }
+        }
+    }
+
+    // Ids are only known once the schedules are inserted, so they are recorded when the transaction ends
+    private void afterCompletion(Long vehicleId, Timeline timeline, List<Entry> reserved) {
+        if (reserved.isEmpty()) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            reserved.forEach(entry -> register(vehicleId, timeline, entry));
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_COMMITTED) {
+                    reserved.forEach(entry -> register(vehicleId, timeline, entry));
+                } else {
+                    synchronized (timeline) {
+                        reserved.forEach(timeline::remove);
+                    }
+                }
+            }
+        });
+    }
+
+    private void register(Long vehicleId, Timeline timeline, Entry entry) {
+        Long scheduleId = entry.schedule.getId();
+        if (scheduleId != null) {
+            synchronized (timeline) {
+                timeline.byScheduleId.put(scheduleId, entry);
+            }
+            vehicleBySchedule.put(scheduleId, vehicleId);
+        }
+    }
+
+    private Timeline load(Long vehicleId) {
+        Timeline timeline = new Timeline();
+        for (Schedule schedule : scheduleRepository.findByVehicleId(vehicleId)) {
+            Entry entry = new Entry(schedule, sequence.incrementAndGet());
+            timeline.add(entry);
+            timeline.byScheduleId.put(schedule.getId(), entry);
+            vehicleBySchedule.put(schedule.getId(), vehicleId);
+        }
+        return timeline;
+    }
+
+    public static LocalDateTime departureOf(Schedule schedule) {
+        return schedule.getScheduleDate().atTime(schedule.getDepartureTime());
+    }
+
+    // Trips whose arrival is not after departure end on the next day
+    public static LocalDateTime arrivalOf(Schedule schedule) {
+        LocalDate arrivalDate = schedule.getArrivalTime().isAfter(schedule.getDepartureTime())
+                ? schedule.getScheduleDate()
+                : schedule.getScheduleDate().plusDays(1);
+        return arrivalDate.atTime(schedule.getArrivalTime());
+    }
+
+    private static final class Entry {
+
+        final Schedule schedule;
+        final LocalDateTime start;
+        final LocalDateTime end;
+        // Tie-breaker for trips departing at the same time
+        final long seq;
+
+        Entry(Schedule schedule, long seq) {
+            this.schedule = schedule;
+            this.start = departureOf(schedule);
+            this.end = arrivalOf(schedule);
+            this.seq = seq;
+        }
+
+        // Search bound that sorts before every trip departing at the given time
+        Entry(LocalDateTime start) {
+            this.schedule = null;
+            this.start = start;
+            this.end = start;
+            this.seq = Long.MIN_VALUE;
+        }
+    }
+
+    private static final class Timeline {
+
+        final TreeSet<Entry> entries = new TreeSet<>(
+                Comparator.comparing((Entry e) -> e.start).thenComparingLong(e -> e.seq));
+        final Map<Long, Entry> byScheduleId = new HashMap<>();
+        // Longest trip seen; only grows, which keeps the lookup window safe
+        Duration longest = Duration.ZERO;
+
+        void add(Entry entry) {
+            entries.add(entry);
+            Duration duration = Duration.between(entry.start, entry.end);
+            if (duration.compareTo(longest) > 0) {
+                longest = duration;
+            }
+        }
+
+        void remove(Entry entry) {
+            entries.remove(entry);
+        }
+
+        void removeSchedule(Long scheduleId) {
+            Entry entry = byScheduleId.remove(scheduleId);
+            if (entry != null) {
+                entries.remove(entry);
+            }
+        }
+
+        // Half-open intervals: a trip may depart exactly when the previous one arrives
+        boolean overlaps(Entry candidate) {
+            Entry windowStart = new Entry(candidate.start.minus(longest));
+            Entry windowEnd = new Entry(candidate.end);
+            for (Entry other : entries.subSet(windowStart, true, windowEnd, false)) {
+                if (other.end.isAfter(candidate.start)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}